@@ -71,6 +71,27 @@ tasks {
     val assemble by getting {
         dependsOn(shadowJmh)
     }
+
+    // the segment pool reads its configuration once, so each pool mode needs its own test JVM
+    fun registerPoolModeTest(name: String, mode: String, property: String, value: String) =
+        register<Test>(name) {
+            description = "Runs the core tests with $mode."
+            group = "verification"
+            testClassesDirs = sourceSets.test.get().output.classesDirs
+            classpath = sourceSets.test.get().runtimeClasspath
+            systemProperty(property, value)
+            filter {
+                includeTestsMatching("jayo.playground.core.*")
+            }
+        }
+
+    val check by getting {
+        dependsOn(
+            registerPoolModeTest("slabTest", "segments allocated by slabs", "jayo.pool.slab.segments", "16"),
+            registerPoolModeTest("stampedPoolTest", "the stamped segment pool", "jayo.pool.impl", "stamped"),
+            registerPoolModeTest("magazineTest", "thread-local segment magazines", "jayo.pool.magazine.size", "8"),
+        )
+    }
 }
 
 // when version changes :
@@ -0,0 +1,63 @@
+package jayo.playground.benchmarks
+
+import jayo.playground.core.Buffer
+import jayo.playground.core.Jayo
+import jayo.playground.core.Reader
+import org.openjdk.jmh.annotations.*
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.util.concurrent.TimeUnit
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+import kotlin.random.Random
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Timeout(time = 20)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 1)
+open class GzipReaderBenchmark {
+    @Param("2000", "200000", "2000000")
+    private var length = 0
+
+    private lateinit var gzipped: ByteArray
+    private val buffer = Buffer.create5()
+
+    @Setup
+    fun setup() {
+        // mostly compressible content, like an HTTP body
+        val random = Random(0)
+        val content = ByteArray(length) { if (random.nextInt(4) == 0) random.nextInt().toByte() else 0x61 }
+        val out = ByteArrayOutputStream()
+        GZIPOutputStream(out).use { it.write(content) }
+        gzipped = out.toByteArray()
+    }
+
+    @Benchmark
+    fun gzipInputStream() {
+        val reader = Jayo.buffer5(Jayo.reader5(GZIPInputStream(ByteArrayInputStream(gzipped))))
+        readFully(reader)
+    }
+
+    @Benchmark
+    fun gzipRawReader() {
+        val reader = Jayo.buffer5(Jayo.gzip5(Jayo.reader5(ByteArrayInputStream(gzipped))))
+        readFully(reader)
+    }
+
+    private fun readFully(reader: Reader) {
+        var total = 0L
+        while (true) {
+            val read = reader.readAtMostTo(buffer, 16_709L)
+            if (read == -1L) {
+                break
+            }
+            total += read
+            buffer.clear()
+        }
+        reader.close()
+        check(total == length.toLong())
+    }
+}
@@ -0,0 +1,56 @@
+package jayo.playground.benchmarks
+
+import jayo.playground.core.Buffer
+import org.openjdk.jmh.annotations.*
+import java.util.concurrent.*
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Timeout(time = 20) // in seconds
+@Warmup(iterations = 7, time = 1) // in seconds
+@Measurement(iterations = 5, time = 1) // in seconds
+@BenchmarkMode(Mode.Throughput)
+// carrier thread bucketing needs access to the internal Thread.currentCarrierThread() method
+@Fork(value = 1, jvmArgsAppend = ["--add-opens", "java.base/java.lang=ALL-UNNAMED"])
+open class SegmentPoolBenchmark {
+    @Param("threadId", "carrier")
+    private lateinit var bucketing: String
+
+    private lateinit var executor: ExecutorService
+
+    companion object {
+        private const val OPERATIONS_PER_INVOCATION = 1200
+
+        // spans 3 segments
+        private val STRING = "a".repeat(40_000)
+
+        @JvmStatic
+        private fun writeAndRead(countDownLatch: CountDownLatch) {
+            val buffer = Buffer.create5()
+            buffer.write(STRING)
+            buffer.readString()
+            countDownLatch.countDown()
+        }
+    }
+
+    @Setup(Level.Trial)
+    fun setup() {
+        // each param set runs in its own forked JVM, this is read when the segment pool is initialized
+        System.setProperty("jayo.pool.bucketing", bucketing)
+        executor = Executors.newVirtualThreadPerTaskExecutor()
+    }
+
+    @TearDown(Level.Trial)
+    fun tearDown() {
+        executor.shutdownNow()
+    }
+
+    @Benchmark
+    fun virtualThreadPerTask() {
+        val latch = CountDownLatch(OPERATIONS_PER_INVOCATION)
+        repeat(OPERATIONS_PER_INVOCATION) {
+            executor.execute { writeAndRead(latch) }
+        }
+        latch.await(20, TimeUnit.SECONDS)
+    }
+}
@@ -0,0 +1,38 @@
+package jayo.playground.benchmarks
+
+import jayo.playground.core.Buffer
+import org.openjdk.jmh.annotations.*
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Timeout(time = 20) // in seconds
+@Warmup(iterations = 7, time = 1) // in seconds
+@Measurement(iterations = 5, time = 1) // in seconds
+@BenchmarkMode(Mode.Throughput)
+@Threads(64)
+@Fork(value = 1)
+open class SegmentPoolContentionBenchmark {
+    @Param("door", "stamped")
+    private lateinit var poolImpl: String
+
+    private lateinit var buffer: Buffer
+
+    companion object {
+        // spans 3 segments
+        private val STRING = "a".repeat(40_000)
+    }
+
+    @Setup(Level.Trial)
+    fun setup() {
+        // each param set runs in its own forked JVM, this is read when the segment pool is initialized
+        System.setProperty("jayo.pool.impl", poolImpl)
+        buffer = Buffer.create5()
+    }
+
+    @Benchmark
+    fun writeThenClear() {
+        buffer.write(STRING)
+        buffer.clear()
+    }
+}
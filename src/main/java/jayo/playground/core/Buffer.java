@@ -31,7 +31,15 @@ import jayo.playground.core.impl2.RealBuffer2;
 import jayo.playground.core.impl3.RealBuffer3;
 import jayo.playground.core.impl4.RealBuffer4;
 import jayo.playground.core.impl5.RealBuffer5;
+import jayo.playground.core.impl5.RealByteString;
+import jayo.playground.core.impl5.RealUnsafeCursor5;
+import jayo.playground.core.impl6.RealBuffer6;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.zip.Checksum;
 
 /**
  * A collection of bytes in memory.
@@ -99,6 +107,13 @@ public interface Buffer extends Reader, Writer, Cloneable {
         return new RealBuffer5();
     }
 
+    /**
+     * @return a new {@link Buffer} that stores its data off-heap, in native memory.
+     */
+    static @NonNull Buffer create6() {
+        return new RealBuffer6();
+    }
+
     /**
      * @return the current number of bytes that can be read (or skipped over) from this buffer, which may be {@code 0L}.
      * Ongoing or future write operations may increase the number of available bytes.
@@ -144,7 +159,396 @@ public interface Buffer extends Reader, Writer, Cloneable {
                   final long offset,
                   final long byteCount);
 
+    /**
+     * @return an immutable snapshot of the current content of this buffer. This method does not consume data from this
+     * buffer.
+     * <p>
+     * The snapshot of a {@linkplain #create5() impl5 buffer} does not copy the bytes, it shares this buffer's segments,
+     * that will never be reused by the pool. Other buffers copy the bytes.
+     * @throws IllegalArgumentException if this buffer contains more than {@code Integer.MAX_VALUE} bytes.
+     */
+    default @NonNull ByteString snapshot() {
+        final var byteSize = bytesAvailable();
+        if (byteSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("size > Integer.MAX_VALUE: " + byteSize);
+        }
+        return snapshot((int) byteSize);
+    }
+
+    /**
+     * @return an immutable snapshot of the first {@code byteCount} bytes of this buffer. This method does not consume
+     * data from this buffer.
+     * <p>
+     * The snapshot of a {@linkplain #create5() impl5 buffer} does not copy the bytes, it shares this buffer's segments,
+     * that will never be reused by the pool. Other buffers copy the bytes.
+     * @throws IndexOutOfBoundsException if {@code byteCount} is out of this buffer bounds
+     *                                   ({@code [0..buffer.bytesAvailable())}).
+     */
+    default @NonNull ByteString snapshot(final int byteCount) {
+        return new RealByteString(copyBytes(0L, byteCount));
+    }
+
+    /**
+     * Returns a cursor to read the bytes of this buffer in place, segment by segment, see {@link UnsafeCursor}.
+     *
+     * @throws UnsupportedOperationException if this buffer does not expose its segments, only
+     *                                       {@linkplain #create5() impl5 buffers} support cursors.
+     */
+    default @NonNull UnsafeCursor readUnsafe() {
+        return readUnsafe(UnsafeCursor.create());
+    }
+
+    /**
+     * Attaches {@code unsafeCursor} to this buffer, to read its bytes in place, segment by segment, see
+     * {@link UnsafeCursor}.
+     *
+     * @return {@code unsafeCursor}
+     * @throws IllegalStateException         if {@code unsafeCursor} is already attached to a buffer.
+     * @throws UnsupportedOperationException if this buffer does not expose its segments, only
+     *                                       {@linkplain #create5() impl5 buffers} support cursors.
+     */
+    default @NonNull UnsafeCursor readUnsafe(final @NonNull UnsafeCursor unsafeCursor) {
+        throw new UnsupportedOperationException("readUnsafe is only supported by impl5 buffers");
+    }
+
+    /**
+     * Returns a cursor to read and write the bytes of this buffer in place, segment by segment, and to resize this
+     * buffer, see {@link UnsafeCursor}.
+     *
+     * @throws UnsupportedOperationException if this buffer does not expose its segments, only
+     *                                       {@linkplain #create5() impl5 buffers} support cursors.
+     */
+    default @NonNull UnsafeCursor readAndWriteUnsafe() {
+        return readAndWriteUnsafe(UnsafeCursor.create());
+    }
+
+    /**
+     * Attaches {@code unsafeCursor} to this buffer, to read and write its bytes in place, segment by segment, and to
+     * resize this buffer, see {@link UnsafeCursor}.
+     *
+     * @return {@code unsafeCursor}
+     * @throws IllegalStateException         if {@code unsafeCursor} is already attached to a buffer.
+     * @throws UnsupportedOperationException if this buffer does not expose its segments, only
+     *                                       {@linkplain #create5() impl5 buffers} support cursors.
+     */
+    default @NonNull UnsafeCursor readAndWriteUnsafe(final @NonNull UnsafeCursor unsafeCursor) {
+        throw new UnsupportedOperationException("readAndWriteUnsafe is only supported by impl5 buffers");
+    }
+
+    /**
+     * Returns read-only {@link ByteBuffer} views of the bytes of this buffer, one per segment, to pass them to NIO APIs
+     * like {@link java.nio.channels.GatheringByteChannel#write(ByteBuffer[])} without copying. This method does not
+     * consume data from this buffer.
+     * <pre>
+     * {@code
+     * try (Buffer.ByteBufferViews views = buffer.asByteBuffers()) {
+     *     channel.write(views.byteBuffers());
+     * }
+     * }
+     * </pre>
+     * The viewed segments of an {@linkplain #create5() impl5 buffer} are pinned: they are shared, so they are never
+     * modified nor returned to the pool, and the views stay valid after this buffer is consumed or cleared, until they
+     * are {@linkplain ByteBufferViews#close() closed}. Other buffers return a single view of a copy of the bytes.
+     */
+    default @NonNull ByteBufferViews asByteBuffers() {
+        return asByteBuffers(0L, bytesAvailable());
+    }
+
+    /**
+     * Returns read-only {@link ByteBuffer} views of {@code byteCount} bytes of this buffer, starting at {@code offset},
+     * one per segment. This method does not consume data from this buffer.
+     * <p>
+     * The viewed segments of an {@linkplain #create5() impl5 buffer} are pinned: they are shared, so they are never
+     * modified nor returned to the pool, and the views stay valid after this buffer is consumed or cleared, until they
+     * are {@linkplain ByteBufferViews#close() closed}. Other buffers return a single view of a copy of the bytes.
+     *
+     * @param offset    the start offset (inclusive) in this buffer of the first byte to view.
+     * @param byteCount the number of bytes to view.
+     * @throws IndexOutOfBoundsException if {@code offset} or {@code byteCount} is out of this buffer bounds
+     *                                   ({@code [0..buffer.bytesAvailable())}).
+     */
+    default @NonNull ByteBufferViews asByteBuffers(final long offset, final long byteCount) {
+        Objects.checkFromIndexSize(offset, byteCount, bytesAvailable());
+        if (byteCount == 0L) {
+            return new ByteBufferViews(new ByteBuffer[0]);
+        }
+        if (byteCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("byteCount > Integer.MAX_VALUE: " + byteCount);
+        }
+        return new ByteBufferViews(
+                new ByteBuffer[]{ByteBuffer.wrap(copyBytes(offset, (int) byteCount)).asReadOnlyBuffer()});
+    }
+
+    /**
+     * Updates {@code checksum} with {@code byteCount} bytes of this buffer, starting at {@code offset}. Each segment of
+     * an {@linkplain #create5() impl5 buffer} is passed to the checksum in place, without copying it, other buffers
+     * copy the bytes by chunks. This method does not consume data from this buffer.
+     * <pre>
+     * {@code
+     * long crc = buffer.checksum(new CRC32C(), 0L, buffer.bytesAvailable());
+     * }
+     * </pre>
+     *
+     * @param checksum  the checksum to update.
+     * @param offset    the start offset (inclusive) in this buffer of the first byte to checksum.
+     * @param byteCount the number of bytes to checksum.
+     * @return the value of {@code checksum} once updated.
+     * @throws IndexOutOfBoundsException if {@code offset} or {@code byteCount} is out of this buffer bounds
+     *                                   ({@code [0..buffer.bytesAvailable())}).
+     */
+    default long checksum(final @NonNull Checksum checksum, final long offset, final long byteCount) {
+        Objects.requireNonNull(checksum);
+        Objects.checkFromIndexSize(offset, byteCount, bytesAvailable());
+        final var peek = peek();
+        peek.skip(offset);
+        final var chunk = new byte[(int) Math.min(byteCount, 8192L)];
+        var remaining = byteCount;
+        while (remaining > 0L) {
+            final var toRead = (int) Math.min(remaining, chunk.length);
+            peek.readTo(chunk, 0, toRead);
+            checksum.update(chunk, 0, toRead);
+            remaining -= toRead;
+        }
+        return checksum.getValue();
+    }
+
+    /**
+     * Reads all the remaining bytes of {@code sources}, in order, and writes them to this buffer. The position of each
+     * source is advanced to its limit.
+     *
+     * @return {@code this}
+     */
+    default @NonNull Buffer readFrom(final @NonNull ByteBuffer @NonNull ... sources) {
+        Objects.requireNonNull(sources);
+        for (final var source : sources) {
+            Objects.requireNonNull(source);
+            if (source.hasArray()) {
+                write(source.array(), source.arrayOffset() + source.position(), source.remaining());
+                source.position(source.limit());
+                continue;
+            }
+            final var chunk = new byte[(int) Math.min(source.remaining(), 8192L)];
+            while (source.hasRemaining()) {
+                final var toCopy = Math.min(source.remaining(), chunk.length);
+                source.get(chunk, 0, toCopy);
+                write(chunk, 0, toCopy);
+            }
+        }
+        return this;
+    }
+
     @Override
     @NonNull
     Buffer write(final @NonNull String string);
+
+    @Override
+    default @NonNull Buffer write(final @NonNull ByteString byteString) {
+        Writer.super.write(byteString);
+        return this;
+    }
+
+    @Override
+    default @NonNull Buffer write(final byte @NonNull [] source) {
+        Writer.super.write(source);
+        return this;
+    }
+
+    @Override
+    @NonNull
+    Buffer write(final byte @NonNull [] source, final int offset, final int byteCount);
+
+    @Override
+    default @NonNull Buffer writeByte(final byte b) {
+        Writer.super.writeByte(b);
+        return this;
+    }
+
+    @Override
+    default @NonNull Buffer writeShort(final short s) {
+        Writer.super.writeShort(s);
+        return this;
+    }
+
+    @Override
+    default @NonNull Buffer writeInt(final int i) {
+        Writer.super.writeInt(i);
+        return this;
+    }
+
+    @Override
+    default @NonNull Buffer writeLong(final long l) {
+        Writer.super.writeLong(l);
+        return this;
+    }
+
+    @Override
+    default @NonNull Buffer writeDecimalLong(final long l) {
+        Writer.super.writeDecimalLong(l);
+        return this;
+    }
+
+    @Override
+    default @NonNull Buffer writeHexadecimalUnsignedLong(final long l) {
+        Writer.super.writeHexadecimalUnsignedLong(l);
+        return this;
+    }
+
+    /**
+     * This method does not affect this buffer's content as there is no upstream to write data to.
+     *
+     * @return {@code this}
+     */
+    @Override
+    default @NonNull Buffer emit() {
+        return this;
+    }
+
+    /**
+     * @return a copy of {@code byteCount} bytes of this buffer, starting at {@code offset}. This method does not consume
+     * data from this buffer.
+     */
+    private byte @NonNull [] copyBytes(final long offset, final int byteCount) {
+        Objects.checkFromIndexSize(offset, byteCount, bytesAvailable());
+        final var peek = peek();
+        peek.skip(offset);
+        final var bytes = new byte[byteCount];
+        peek.readTo(bytes, 0, byteCount);
+        return bytes;
+    }
+
+    /**
+     * Read-only {@link ByteBuffer} views of the bytes of a buffer, returned by {@link Buffer#asByteBuffers()}.
+     * <p>
+     * Close the views once the byte buffers are no longer used, so the viewed segments can return to the pool. The byte
+     * buffers must not be read after that, their bytes may be overwritten by the next user of the segments.
+     */
+    class ByteBufferViews implements AutoCloseable {
+        private final @NonNull ByteBuffer @NonNull [] byteBuffers;
+
+        protected ByteBufferViews(final @NonNull ByteBuffer @NonNull [] byteBuffers) {
+            this.byteBuffers = Objects.requireNonNull(byteBuffers);
+        }
+
+        /**
+         * @return the read-only views, in the order of the buffer's bytes.
+         */
+        public final @NonNull ByteBuffer @NonNull [] byteBuffers() {
+            return byteBuffers;
+        }
+
+        /**
+         * Releases the viewed segments. Calling this method more than once has no effect. This implementation does
+         * nothing, the views of a copy of the bytes have no segment to release.
+         */
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * A handle to the underlying data of a buffer, that gives direct access to its segments. It is dangerous, the
+     * exposed {@link #data} array must only be accessed between {@link #start} (inclusive) and {@link #end} (exclusive),
+     * and it must not be kept after the cursor moved or was closed.
+     * <p>
+     * The cursor is attached to a buffer with {@link Buffer#readUnsafe()} or {@link Buffer#readAndWriteUnsafe()}, then
+     * positioned on a segment with {@link #seek(long)} or {@link #next()}. While attached, the buffer must not be read
+     * or written by other means. Close the cursor to detach it, it can then be reused with another buffer.
+     * <pre>
+     * {@code
+     * try (Buffer.UnsafeCursor cursor = buffer.readAndWriteUnsafe()) {
+     *     while (cursor.next() != -1) {
+     *         for (int i = cursor.start; i < cursor.end; i++) {
+     *             cursor.data[i] ^= mask;
+     *         }
+     *     }
+     * }
+     * }
+     * </pre>
+     * Only a read-write cursor may modify {@link #data}, or change the size of the buffer with
+     * {@link #expandBuffer(int)} and {@link #resizeBuffer(long)}. Segments that are shared with other buffers or byte
+     * strings are replaced by a private copy before a read-write cursor exposes them.
+     */
+    abstract class UnsafeCursor implements AutoCloseable {
+        /**
+         * @return a new cursor, not attached to any buffer.
+         */
+        public static @NonNull UnsafeCursor create() {
+            return new RealUnsafeCursor5();
+        }
+
+        /**
+         * The buffer this cursor is attached to, or null if it is not attached.
+         */
+        public @Nullable Buffer buffer = null;
+        /**
+         * True if this cursor is allowed to modify the data and the size of its buffer.
+         */
+        public boolean readWrite = false;
+        /**
+         * The offset in the buffer of {@code data[start]}, or {@code -1} if the cursor is not positioned on a segment,
+         * or the buffer's size if the cursor is at the end of the buffer.
+         */
+        public long offset = -1L;
+        /**
+         * The byte array of the current segment, or null if the cursor is not positioned on a segment.
+         */
+        public byte @Nullable [] data = null;
+        /**
+         * The index in {@link #data} of the first byte of the current segment that is at or after {@link #offset}, or
+         * {@code -1}.
+         */
+        public int start = -1;
+        /**
+         * The index in {@link #data} right after the last readable byte of the current segment, or {@code -1}.
+         */
+        public int end = -1;
+
+        /**
+         * Moves this cursor to the next segment of the buffer, or to the first one if it is not positioned yet.
+         *
+         * @return the number of readable bytes in the new segment, or {@code -1} if the end of the buffer is reached.
+         * @throws IllegalStateException if this cursor is already at the end of the buffer.
+         */
+        public abstract int next();
+
+        /**
+         * Moves this cursor to the segment that contains the byte at {@code offset} in the buffer, with {@link #start}
+         * pointing to this byte. {@code -1} and the buffer's size are valid offsets, that leave the cursor without a
+         * segment.
+         *
+         * @return the number of readable bytes from {@code offset} in the segment, or {@code -1} if there is none.
+         * @throws IndexOutOfBoundsException if {@code offset} is out of {@code [-1..buffer.bytesAvailable()]}.
+         */
+        public abstract int seek(final long offset);
+
+        /**
+         * Changes the size of the buffer to {@code newSize}. If it shrinks the buffer, the trailing bytes are discarded
+         * and the cursor is moved to the new end of the buffer. If it grows the buffer, the new bytes are not
+         * initialized, they must be written through this cursor that is moved to the first of them.
+         *
+         * @return the previous size of the buffer.
+         * @throws IllegalArgumentException if {@code newSize} is negative.
+         * @throws IllegalStateException    if this cursor is not a read-write cursor.
+         */
+        public abstract long resizeBuffer(final long newSize);
+
+        /**
+         * Grows the buffer by adding capacity at its end, the cursor is moved to the first of the new bytes. At least
+         * {@code minByteCount} bytes are added, and they are all in the same segment. The new bytes are not
+         * initialized, the ones that are not written must be removed with {@link #resizeBuffer(long)}.
+         *
+         * @return the number of bytes added to the buffer.
+         * @throws IllegalArgumentException if {@code minByteCount} is not positive or is greater than the segment size.
+         * @throws IllegalStateException    if this cursor is not a read-write cursor.
+         */
+        public abstract long expandBuffer(final int minByteCount);
+
+        /**
+         * Detaches this cursor from its buffer.
+         *
+         * @throws IllegalStateException if this cursor is not attached to a buffer.
+         */
+        @Override
+        public abstract void close();
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ *
+ * Forked from Okio (https://github.com/square/okio), original copyright is below
+ *
+ * Copyright (C) 2013 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jayo.playground.core;
+
+import jayo.playground.core.impl5.RealByteString;
+import org.jspecify.annotations.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * An immutable sequence of bytes.
+ * <p>
+ * Byte strings compare content, not identity: two byte strings are {@linkplain #equals(Object) equal} if they contain
+ * the same bytes, whatever their implementation. Their hash code is computed once, on first use, and then cached.
+ * <p>
+ * A byte string returned by {@link Buffer#snapshot()} does not copy the buffer's bytes, it references the buffer's
+ * segments, that become read-only and will not return to the pool.
+ */
+public interface ByteString {
+    /**
+     * @return a new byte string containing a copy of {@code data}.
+     */
+    static @NonNull ByteString of(final byte @NonNull ... data) {
+        Objects.requireNonNull(data);
+        return new RealByteString(data.clone());
+    }
+
+    /**
+     * @return a new byte string containing the UTF-8 encoded bytes of {@code string}.
+     */
+    static @NonNull ByteString encode(final @NonNull String string) {
+        Objects.requireNonNull(string);
+        return new RealByteString(string.getBytes(StandardCharsets.UTF_8), string);
+    }
+
+    /**
+     * @return the number of bytes in this byte string.
+     */
+    int byteSize();
+
+    /**
+     * @return the byte at {@code index}.
+     * @throws IndexOutOfBoundsException if {@code index} is out of this byte string bounds
+     *                                   ({@code [0..byteString.byteSize())}).
+     */
+    byte getByte(final int index);
+
+    /**
+     * @return a byte array containing a copy of the bytes of this byte string.
+     */
+    byte @NonNull [] toByteArray();
+
+    /**
+     * @return a string decoded from the bytes of this byte string using UTF-8. The result is cached, so later calls
+     * return the same instance.
+     */
+    @NonNull
+    String decodeToUtf8();
+
+    /**
+     * @return this byte string encoded in lower case hexadecimal, two characters per byte.
+     */
+    @NonNull
+    String hex();
+
+    /**
+     * @return this byte string encoded in Base64, as defined by RFC 4648, with padding.
+     */
+    @NonNull
+    String base64();
+
+    /**
+     * @return true if the {@code byteCount} bytes of this byte string starting at {@code offset} are equal to the bytes
+     * of {@code other} starting at {@code otherOffset}. Returns false if either range is out of bounds.
+     */
+    boolean rangeEquals(final int offset,
+                        final @NonNull ByteString other,
+                        final int otherOffset,
+                        final int byteCount);
+
+    /**
+     * @return true if the {@code byteCount} bytes of this byte string starting at {@code offset} are equal to the bytes
+     * of {@code other} starting at {@code otherOffset}. Returns false if either range is out of bounds.
+     */
+    boolean rangeEquals(final int offset,
+                        final byte @NonNull [] other,
+                        final int otherOffset,
+                        final int byteCount);
+}
@@ -27,18 +27,42 @@ import jayo.playground.core.impl1.InputStreamRawReader1;
 import jayo.playground.core.impl1.RealReader1;
 import jayo.playground.core.impl2.InputStreamRawReader2;
 import jayo.playground.core.impl2.RealReader2;
+import jayo.playground.core.impl3.MappedFileRawReader3;
 import jayo.playground.core.impl3.ReadableByteChannelRawReader3;
 import jayo.playground.core.impl3.RealReader3;
 import jayo.playground.core.impl4.InputStreamRawReader4;
 import jayo.playground.core.impl4.RealReader4;
+import jayo.playground.core.impl5.DeflaterRawWriter5;
+import jayo.playground.core.impl5.GzipRawReader5;
+import jayo.playground.core.impl5.GzipRawWriter5;
+import jayo.playground.core.impl5.HashingRawReader5;
+import jayo.playground.core.impl5.HashingRawWriter5;
+import jayo.playground.core.impl5.InflaterRawReader5;
 import jayo.playground.core.impl5.InputStreamRawReader5;
+import jayo.playground.core.impl5.OutputStreamRawWriter5;
+import jayo.playground.core.impl5.ReadableByteChannelRawReader5;
 import jayo.playground.core.impl5.RealReader5;
+import jayo.playground.core.impl5.RealWriter5;
+import jayo.playground.core.impl5.WritableByteChannelRawWriter5;
+import jayo.playground.core.impl6.ReadableByteChannelRawReader6;
+import jayo.playground.core.impl6.RealReader6;
+import jayo.playground.core.impl6.WritableByteChannelRawWriter6;
 import jayo.playground.scheduling.TaskRunner;
 import org.jspecify.annotations.NonNull;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.util.Objects;
+import java.util.zip.Checksum;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
  * Essential APIs for working with Jayo.
@@ -171,6 +195,43 @@ public final class Jayo {
         return new ReadableByteChannelRawReader3(in);
     }
 
+    /**
+     * @return a raw reader that reads from {@code in} file channel, starting at its current position. The file is
+     * memory-mapped in large read-only windows, and mapped regions are linked to the destination buffer without copying.
+     * <p>
+     * The file channel will be closed when the returned raw reader is closed.
+     */
+    public static @NonNull RawReader mapped3(final @NonNull FileChannel in) {
+        Objects.requireNonNull(in);
+        return new MappedFileRawReader3(in);
+    }
+
+    /**
+     * @return a raw reader that reads from the file at {@code path}. The file is memory-mapped in large read-only
+     * windows, and mapped regions are linked to the destination buffer without copying.
+     * @throws JayoException if an I/O error occurs when opening the file.
+     */
+    public static @NonNull RawReader mapped3(final @NonNull Path path) {
+        Objects.requireNonNull(path);
+        final FileChannel in;
+        try {
+            in = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw JayoException.buildJayoException(e);
+        }
+        try {
+            return new MappedFileRawReader3(in);
+        } catch (Throwable t) {
+            // the channel was opened here, it must not leak
+            try {
+                in.close();
+            } catch (IOException e) {
+                t.addSuppressed(e);
+            }
+            throw t;
+        }
+    }
+
     /**
      * @return a new reader that buffers reads from the raw {@code reader}. The returned reader will perform bulk reads
      * into its underlying buffer.
@@ -203,6 +264,53 @@ public final class Jayo {
         return new RealReader5(reader);
     }
 
+    /**
+     * @return a new writer that buffers writes to the raw {@code writer}. The returned writer will batch writes to
+     * {@code writer}.
+     * <p>
+     * Only complete segments are written to the raw {@code writer} on each write operation, use {@link Writer#emit()}
+     * or {@link Writer#flush()} to push all the remaining buffered bytes.
+     * <p>
+     * Use this wherever you synchronously write to a raw writer to get an ergonomic and efficient access to data.
+     */
+    public static @NonNull Writer buffer5(final @NonNull RawWriter writer) {
+        Objects.requireNonNull(writer);
+        return new RealWriter5(writer);
+    }
+
+    /**
+     * @return a new writer that buffers writes to the raw {@code writer}. The returned writer will batch writes to
+     * {@code writer}.
+     * <p>
+     * Write operations to the raw {@code writer} are seamlessly processed <b>asynchronously</b> by a task of the
+     * {@code taskRunner}, write operations on the returned writer only block when the default high-water mark of bytes
+     * waiting to be written is reached.
+     * <p>
+     * Use this wherever you asynchronously write to a raw writer to get an ergonomic and efficient access to data.
+     */
+    public static @NonNull Writer bufferAsync5(final @NonNull RawWriter writer, final @NonNull TaskRunner taskRunner) {
+        return bufferAsync5(writer, taskRunner, RealWriter5.Async.DEFAULT_HIGH_WATER_MARK);
+    }
+
+    /**
+     * @return a new writer that buffers writes to the raw {@code writer}. The returned writer will batch writes to
+     * {@code writer}.
+     * <p>
+     * Write operations to the raw {@code writer} are seamlessly processed <b>asynchronously</b> by a task of the
+     * {@code taskRunner}, write operations on the returned writer only block when {@code highWaterMark} bytes are
+     * waiting to be written.
+     * <p>
+     * Use this wherever you asynchronously write to a raw writer to get an ergonomic and efficient access to data.
+     * @throws IllegalArgumentException if {@code highWaterMark} is not strictly positive.
+     */
+    public static @NonNull Writer bufferAsync5(final @NonNull RawWriter writer,
+                                               final @NonNull TaskRunner taskRunner,
+                                               final long highWaterMark) {
+        Objects.requireNonNull(writer);
+        Objects.requireNonNull(taskRunner);
+        return new RealWriter5.Async(writer, taskRunner, highWaterMark);
+    }
+
     /**
      * @return a raw reader that reads from {@code in} stream.
      */
@@ -210,4 +318,149 @@ public final class Jayo {
         Objects.requireNonNull(in);
         return new InputStreamRawReader5(in);
     }
+
+    /**
+     * @return a raw reader that reads from {@code in} readable byte channel.
+     * <p>
+     * If {@code in} is a {@link FileChannel}, or if the destination is a file channel writer, then
+     * {@link Writer#transferFrom(RawReader)} will transfer bytes between both channels without copying them to the
+     * Java heap.
+     */
+    public static @NonNull RawReader reader5(final @NonNull ReadableByteChannel in) {
+        Objects.requireNonNull(in);
+        return new ReadableByteChannelRawReader5(in);
+    }
+
+    /**
+     * @return a raw writer that writes to {@code out} stream.
+     */
+    public static @NonNull RawWriter writer5(final @NonNull OutputStream out) {
+        Objects.requireNonNull(out);
+        return new OutputStreamRawWriter5(out);
+    }
+
+    /**
+     * @return a raw writer that writes to {@code out} writable byte channel. If it is a gathering byte channel, many
+     * segments will be written in a single gathering write operation.
+     * <p>
+     * {@code out} must be in blocking mode, a write that writes 0 bytes fails with a {@link JayoException}.
+     */
+    public static @NonNull RawWriter writer5(final @NonNull WritableByteChannel out) {
+        Objects.requireNonNull(out);
+        return new WritableByteChannelRawWriter5(out);
+    }
+
+    /**
+     * @return a raw reader that reads from {@code reader} and updates {@code checksum} with all the bytes it reads. Use
+     * {@link Checksum#getValue()} once the reads are done.
+     */
+    public static @NonNull RawReader hashing5(final @NonNull RawReader reader, final @NonNull Checksum checksum) {
+        Objects.requireNonNull(reader);
+        Objects.requireNonNull(checksum);
+        return new HashingRawReader5(reader, checksum);
+    }
+
+    /**
+     * @return a raw reader that reads from {@code reader} and updates {@code messageDigest} with all the bytes it reads.
+     * Use {@link MessageDigest#digest()} once the reads are done.
+     */
+    public static @NonNull RawReader hashing5(final @NonNull RawReader reader,
+                                              final @NonNull MessageDigest messageDigest) {
+        Objects.requireNonNull(reader);
+        Objects.requireNonNull(messageDigest);
+        return new HashingRawReader5(reader, messageDigest);
+    }
+
+    /**
+     * @return a raw writer that writes to {@code writer} and updates {@code checksum} with all the bytes it writes. Use
+     * {@link Checksum#getValue()} once the writes are done.
+     */
+    public static @NonNull RawWriter hashing5(final @NonNull RawWriter writer, final @NonNull Checksum checksum) {
+        Objects.requireNonNull(writer);
+        Objects.requireNonNull(checksum);
+        return new HashingRawWriter5(writer, checksum);
+    }
+
+    /**
+     * @return a raw writer that writes to {@code writer} and updates {@code messageDigest} with all the bytes it
+     * writes. Use {@link MessageDigest#digest()} once the writes are done.
+     */
+    public static @NonNull RawWriter hashing5(final @NonNull RawWriter writer,
+                                              final @NonNull MessageDigest messageDigest) {
+        Objects.requireNonNull(writer);
+        Objects.requireNonNull(messageDigest);
+        return new HashingRawWriter5(writer, messageDigest);
+    }
+
+    /**
+     * @return a raw reader that inflates the DEFLATE-compressed bytes read from {@code reader} with {@code inflater}.
+     * The inflater reads directly from the segments of the upstream buffer, and inflates directly into the segments of
+     * the destination buffer.
+     */
+    public static @NonNull RawReader inflate5(final @NonNull RawReader reader, final @NonNull Inflater inflater) {
+        Objects.requireNonNull(reader);
+        Objects.requireNonNull(inflater);
+        return new InflaterRawReader5(reader, inflater);
+    }
+
+    /**
+     * @return a raw writer that deflates the bytes written to it with {@code deflater}, and writes the compressed bytes
+     * to {@code writer}.
+     */
+    public static @NonNull RawWriter deflate5(final @NonNull RawWriter writer, final @NonNull Deflater deflater) {
+        Objects.requireNonNull(writer);
+        Objects.requireNonNull(deflater);
+        return new DeflaterRawWriter5(writer, deflater);
+    }
+
+    /**
+     * @return a raw reader that decompresses the GZIP bytes read from {@code reader}. The GZIP header and trailer are
+     * checked.
+     */
+    public static @NonNull RawReader gzip5(final @NonNull RawReader reader) {
+        Objects.requireNonNull(reader);
+        return new GzipRawReader5(reader);
+    }
+
+    /**
+     * @return a raw writer that compresses the bytes written to it with GZIP, and writes them to {@code writer}.
+     */
+    public static @NonNull RawWriter gzip5(final @NonNull RawWriter writer) {
+        Objects.requireNonNull(writer);
+        return new GzipRawWriter5(writer);
+    }
+
+    /**
+     * @return a new reader that buffers reads from the raw {@code reader}. The returned reader will perform bulk reads
+     * into its underlying buffer, that stores its data off-heap, in native memory.
+     * <p>
+     * Read operations from the raw {@code reader} are processed <b>synchronously</b>.
+     * <p>
+     * Use this wherever you synchronously read from a raw reader to get an ergonomic and efficient access to data.
+     */
+    public static @NonNull Reader buffer6(final @NonNull RawReader reader) {
+        Objects.requireNonNull(reader);
+        return new RealReader6(reader);
+    }
+
+    /**
+     * @return a raw reader that reads from {@code in} readable byte channel, directly into the native memory of the
+     * destination buffer segments.
+     */
+    public static @NonNull RawReader reader6(final @NonNull ReadableByteChannel in) {
+        Objects.requireNonNull(in);
+        return new ReadableByteChannelRawReader6(in);
+    }
+
+    /**
+     * @return a raw writer that writes to {@code out} writable byte channel, directly from the native memory of the
+     * source buffer segments. If it is a gathering byte channel, many segments will be written in a single gathering
+     * write operation.
+     * <p>
+     * {@code out} must be in blocking mode, a write that writes 0 bytes fails with a {@link JayoException}.
+     */
+    public static @NonNull RawWriter writer6(final @NonNull WritableByteChannel out) {
+        Objects.requireNonNull(out);
+        return new WritableByteChannelRawWriter6(out);
+    }
 }
@@ -26,8 +26,12 @@
 package jayo.playground.core;
 
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * A reader that facilitates typed data reads and keeps a buffer internally so that callers can read chunks of data
@@ -171,6 +175,20 @@ public interface Reader extends RawReader {
     @NonNull
     String readString(final long byteCount, final @NonNull Charset charset);
 
+    /**
+     * Removes exactly {@code byteCount} bytes from this reader and copies them into {@code destination}, starting at
+     * {@code offset}.
+     *
+     * @param destination the byte array to which data will be copied from this reader.
+     * @param offset      the start offset (inclusive) in the {@code destination} byte array.
+     * @param byteCount   the number of bytes to copy.
+     * @throws IndexOutOfBoundsException   if {@code offset} or {@code byteCount} is out of range of
+     *                                     {@code destination} indices.
+     * @throws JayoEOFException            when this reader is exhausted before reading {@code byteCount} bytes from it.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    void readTo(final byte @NonNull [] destination, final int offset, final int byteCount);
+
     /**
      * Reads a long form this reader in hexadecimal form (i.e., as a string in base 16).
      * <p>
@@ -197,6 +215,561 @@ public interface Reader extends RawReader {
      */
     long readHexadecimalUnsignedLong();
 
+    /**
+     * Removes and returns UTF-8 encoded characters up to but not including the next line break, or {@code null} if
+     * this reader is exhausted. A line break is either {@code "\n"} or {@code "\r\n"}; these characters are not
+     * included in the result.
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create()
+     * .write("I'm a hacker!\n")
+     * .write("That's what I said: you're a nerd.\n")
+     * .write("I prefer to be called a hacker!\n");
+     * assertThat(buffer.bytesAvailable()).isEqualTo(81);
+     *
+     * assertThat(buffer.readLine()).isEqualTo("I'm a hacker!");
+     * assertThat(buffer.bytesAvailable()).isEqualTo(67);
+     *
+     * assertThat(buffer.readLine()).isEqualTo("That's what I said: you're a nerd.");
+     * assertThat(buffer.bytesAvailable()).isEqualTo(32);
+     *
+     * assertThat(buffer.readLine()).isEqualTo("I prefer to be called a hacker!");
+     * assertThat(buffer.bytesAvailable()).isEqualTo(0);
+     *
+     * assertThat(buffer.readLine()).isNull();
+     * assertThat(buffer.bytesAvailable()).isEqualTo(0);
+     * }
+     * </pre>
+     * <p>
+     * On the end of the stream this method returns null. If the reader doesn't end with a line break, then an implicit
+     * line break is assumed. Null is returned once the reader is exhausted. Use this for human-generated data, where a
+     * trailing line break is optional.
+     *
+     * @return the line, or null if this reader is exhausted.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default @Nullable String readLine() {
+        final var newline = indexOf((byte) ((int) '\n'));
+
+        if (newline != -1L) {
+            return readLineUntil(newline);
+        }
+        if (request(1L)) {
+            return readString();
+        }
+        return null;
+    }
+
+    /**
+     * Removes and returns UTF-8 encoded characters up to but not including the next line break, throwing
+     * {@link JayoEOFException} if a line break was not encountered. A line break is either {@code "\n"} or
+     * {@code "\r\n"}; these characters are not included in the result.
+     * <p>
+     * Call to this method is equivalent to {@code readLineStrict(Long.MAX_VALUE)}.
+     *
+     * @throws JayoEOFException            if this reader is exhausted before a line break was found.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default @NonNull String readLineStrict() {
+        return readLineStrict(Long.MAX_VALUE);
+    }
+
+    /**
+     * Removes and returns UTF-8 encoded characters up to but not including the next line break, throwing
+     * {@link JayoEOFException} if a line break was not encountered within {@code limit} bytes. A line break is either
+     * {@code "\n"} or {@code "\r\n"}; these characters are not included in the result.
+     * <p>
+     * On the end of the stream this method throws. Every call must consume either '\r\n' or '\n'. Use this for
+     * machine-generated data where a missing line break implies truncated input.
+     * <p>
+     * This method is safe. No bytes are discarded if the match fails, and the caller is free to try another match.
+     * The whole stream is never buffered while scanning for the line break: the underlying reader is read by chunks of
+     * up to one segment, and reading stops once {@code limit + 2} bytes are buffered. So at most {@code limit + 2}
+     * bytes plus one segment are buffered from the underlying reader.
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create()
+     * .write("12345\r\n");
+     *
+     * // This will throw! There must be \r\n or \n at limit or before it.
+     * buffer.readLineStrict(4);
+     *
+     * // No bytes have been consumed so the caller can retry.
+     * assertThat(buffer.readLineStrict(5)).isEqualTo("12345");
+     * }
+     * </pre>
+     *
+     * @param limit the maximum number of bytes of the line, excluding the line break.
+     * @throws IllegalArgumentException    if {@code limit} is negative.
+     * @throws JayoEOFException            if this reader is exhausted before a line break was found, or if the line
+     *                                     is longer than {@code limit}.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default @NonNull String readLineStrict(final long limit) {
+        if (limit < 0L) {
+            throw new IllegalArgumentException("limit < 0: " + limit);
+        }
+        final var scanLength = (limit == Long.MAX_VALUE) ? Long.MAX_VALUE : limit + 1L;
+        final var newline = indexOf((byte) ((int) '\n'), 0L, scanLength);
+        if (newline != -1L) {
+            return readLineUntil(newline);
+        }
+        if (scanLength < Long.MAX_VALUE &&
+                rangeEquals(scanLength - 1L, new byte[]{(byte) ((int) '\r'), (byte) ((int) '\n')})) {
+            // The line was 'limit' UTF-8 bytes followed by \r\n.
+            return readLineUntil(scanLength);
+        }
+        throw new JayoEOFException("\\n not found: limit=" + Math.min(bytesAvailable(), limit));
+    }
+
+    /**
+     * Removes a byte from this reader and returns it.
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create()
+     * .writeByte((byte) 0x7f)
+     * .writeByte((byte) 0x0f);
+     * assertThat(buffer.bytesAvailable()).isEqualTo(2);
+     *
+     * assertThat(buffer.readByte()).isEqualTo((byte) 0x7f);
+     * assertThat(buffer.readByte()).isEqualTo((byte) 0x0f);
+     * assertThat(buffer.bytesAvailable()).isEqualTo(0);
+     * }
+     * </pre>
+     *
+     * @throws JayoEOFException            if there are no more bytes to read.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default byte readByte() {
+        return (byte) readBigEndian(1);
+    }
+
+    /**
+     * Removes two bytes from this reader and returns a short composed of them according to the big-endian order.
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create()
+     * .writeShort((short) 32767)
+     * .writeShort((short) 15);
+     * assertThat(buffer.bytesAvailable()).isEqualTo(4);
+     *
+     * assertThat(buffer.readShort()).isEqualTo((short) 32767);
+     * assertThat(buffer.readShort()).isEqualTo((short) 15);
+     * assertThat(buffer.bytesAvailable()).isEqualTo(0);
+     * }
+     * </pre>
+     *
+     * @throws JayoEOFException            if there are not enough data to read a short value.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default short readShort() {
+        return (short) readBigEndian(2);
+    }
+
+    /**
+     * Removes four bytes from this reader and returns an int composed of them according to the big-endian order.
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create()
+     * .writeInt(2147483647)
+     * .writeInt(15);
+     * assertThat(buffer.bytesAvailable()).isEqualTo(8);
+     *
+     * assertThat(buffer.readInt()).isEqualTo(2147483647);
+     * assertThat(buffer.readInt()).isEqualTo(15);
+     * assertThat(buffer.bytesAvailable()).isEqualTo(0);
+     * }
+     * </pre>
+     *
+     * @throws JayoEOFException            if there are not enough data to read an int value.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default int readInt() {
+        return (int) readBigEndian(4);
+    }
+
+    /**
+     * Removes eight bytes from this reader and returns a long composed of them according to the big-endian order.
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create()
+     * .writeLong(9223372036854775807L)
+     * .writeLong(15L);
+     * assertThat(buffer.bytesAvailable()).isEqualTo(16);
+     *
+     * assertThat(buffer.readLong()).isEqualTo(9223372036854775807L);
+     * assertThat(buffer.readLong()).isEqualTo(15L);
+     * assertThat(buffer.bytesAvailable()).isEqualTo(0);
+     * }
+     * </pre>
+     *
+     * @throws JayoEOFException            if there are not enough data to read a long value.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default long readLong() {
+        return readBigEndian(8);
+    }
+
+    /**
+     * Reads a long from this reader in signed decimal form (i.e., as a string in base 10 with optional leading '-').
+     * <p>
+     * Reader data will be consumed until the reader is exhausted, the first occurrence of non-digit byte, or overflow
+     * happened during resulting value construction.
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create()
+     * .write("8675309 -123 00001");
+     *
+     * assertThat(buffer.readDecimalLong()).isEqualTo(8675309L);
+     * assertThat(buffer.readByte()).isEqualTo((byte) ' ');
+     * assertThat(buffer.readDecimalLong()).isEqualTo(-123L);
+     * assertThat(buffer.readByte()).isEqualTo((byte) ' ');
+     * assertThat(buffer.readDecimalLong()).isEqualTo(1L);
+     * }
+     * </pre>
+     *
+     * @return the read decimal long value
+     * @throws NumberFormatException       if the found digits do not fit into a long or a decimal number was not
+     *                                     present.
+     * @throws JayoEOFException            if the reader is exhausted before a call of this method.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default long readDecimalLong() {
+        require(1L);
+
+        final var peek = peek();
+        // a long has at most 20 characters, longer numbers are scanned by several chunks
+        final var chunk = new byte[32];
+        var length = 0L;
+        scan:
+        while (true) {
+            final var read = readChunk(peek, chunk, 0, chunk.length);
+            if (read == 0) {
+                break;
+            }
+            for (var i = 0; i < read; i++) {
+                final var b = chunk[i];
+                if ((b < (byte) ((int) '0') || b > (byte) ((int) '9')) && (length != 0L || b != (byte) ((int) '-'))) {
+                    // Non-digit, or non-leading negative sign.
+                    break scan;
+                }
+                length++;
+            }
+        }
+
+        final var number = readString(length, StandardCharsets.ISO_8859_1);
+        if (number.isEmpty() || number.equals("-")) {
+            if (!request(1L)) {
+                throw new JayoEOFException();
+            }
+            final var expected = number.isEmpty() ? "Expected a digit or '-'" : "Expected a digit";
+            throw new NumberFormatException(expected + " but was 0x" + Integer.toString(peek().readByte(), 16));
+        }
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException ignored) {
+            throw new NumberFormatException("Number too large: " + number);
+        }
+    }
+
+    /**
+     * Returns the index of the first {@code b} in this reader, or {@code -1} if this reader is exhausted before it is
+     * found. This expands the buffer as necessary until {@code b} is found. This reads an unbounded number of bytes
+     * into the buffer.
+     * <p>
+     * Call to this method is equivalent to {@code indexOf(b, 0L, Long.MAX_VALUE)}.
+     *
+     * @param b the value to find.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default long indexOf(final byte b) {
+        return indexOf(b, 0L, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the index of the first {@code b} in this reader at or after {@code startIndex}, or {@code -1} if this
+     * reader is exhausted before it is found. This expands the buffer as necessary until {@code b} is found. This reads
+     * an unbounded number of bytes into the buffer.
+     * <p>
+     * Call to this method is equivalent to {@code indexOf(b, startIndex, Long.MAX_VALUE)}.
+     *
+     * @param b          the value to find.
+     * @param startIndex the start of the range (inclusive) to find {@code b}.
+     * @throws IllegalArgumentException    if {@code startIndex} is negative.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default long indexOf(final byte b, final long startIndex) {
+        return indexOf(b, startIndex, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the index of the first {@code b} in this reader in the range of {@code startIndex} (inclusive) to
+     * {@code endIndex} (exclusive), or {@code -1} if this range is exhausted before it is found. This expands the
+     * buffer as necessary until {@code b} is found, or until {@code endIndex} bytes were read into the buffer.
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create()
+     * .write("Don't move! He can't see us if we don't move.");
+     *
+     * byte m = 'm';
+     * assertThat(buffer.indexOf(m)).isEqualTo(6);
+     * assertThat(buffer.indexOf(m, 12)).isEqualTo(40);
+     * assertThat(buffer.indexOf(m, 12, 40)).isEqualTo(-1);
+     * }
+     * </pre>
+     *
+     * @param b          the value to find.
+     * @param startIndex the start of the range (inclusive) to find {@code b}.
+     * @param endIndex   the end of the range (exclusive) to find {@code b}.
+     * @throws IllegalArgumentException    if {@code startIndex} is negative or if {@code endIndex} is less than
+     *                                     {@code startIndex}.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default long indexOf(final byte b, final long startIndex, final long endIndex) {
+        if (startIndex < 0L || endIndex < startIndex) {
+            throw new IllegalArgumentException("startIndex=" + startIndex + " endIndex=" + endIndex);
+        }
+
+        final var peek = peek();
+        if (!peek.request(startIndex)) {
+            return -1L;
+        }
+        peek.skip(startIndex);
+        if (!peek.request(1L)) {
+            return -1L;
+        }
+        final var chunk = newChunk(peek);
+        var index = startIndex;
+        while (index < endIndex) {
+            final var read = readChunk(peek, chunk, 0, endIndex - index);
+            if (read == 0) {
+                break;
+            }
+            for (var i = 0; i < read; i++) {
+                if (chunk[i] == b) {
+                    return index + i;
+                }
+            }
+            index += read;
+        }
+        return -1L;
+    }
+
+    /**
+     * Returns the index of the first match for {@code bytes} in this reader, or {@code -1} if it doesn't contain
+     * {@code bytes}. This expands the buffer as necessary until {@code bytes} is found. This reads an unbounded number
+     * of bytes into the buffer.
+     * <p>
+     * Call to this method is equivalent to {@code indexOf(bytes, 0L)}.
+     *
+     * @param bytes the sequence of bytes to find.
+     * @throws IllegalArgumentException    if {@code bytes} is empty.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default long indexOf(final byte @NonNull [] bytes) {
+        return indexOf(bytes, 0L);
+    }
+
+    /**
+     * Returns the index of the first match for {@code bytes} in this reader at or after {@code startIndex}, or
+     * {@code -1} if it doesn't contain {@code bytes}. This expands the buffer as necessary until {@code bytes} is found.
+     * This reads an unbounded number of bytes into the buffer.
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create()
+     * .write("Don't move! He can't see us if we don't move.");
+     *
+     * byte[] moveBytes = "move".getBytes(StandardCharsets.UTF_8);
+     * assertThat(buffer.indexOf(moveBytes)).isEqualTo(6);
+     * assertThat(buffer.indexOf(moveBytes, 12)).isEqualTo(40);
+     * }
+     * </pre>
+     *
+     * @param bytes      the sequence of bytes to find.
+     * @param startIndex the start of the range (inclusive) to find {@code bytes}.
+     * @throws IllegalArgumentException    if {@code bytes} is empty or if {@code startIndex} is negative.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default long indexOf(final byte @NonNull [] bytes, final long startIndex) {
+        Objects.requireNonNull(bytes);
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("bytes is empty");
+        }
+        if (startIndex < 0L) {
+            throw new IllegalArgumentException("startIndex < 0: " + startIndex);
+        }
+
+        final var peek = peek();
+        if (!peek.request(startIndex)) {
+            return -1L;
+        }
+        peek.skip(startIndex);
+        if (!peek.request(1L)) {
+            return -1L;
+        }
+        // the last bytes.length - 1 bytes of a chunk are kept at the start of the next one, a match may start in them
+        final var window = new byte[bytes.length - 1 + newChunk(peek).length];
+        var windowIndex = startIndex;
+        var kept = 0;
+        while (true) {
+            final var read = readChunk(peek, window, kept, Long.MAX_VALUE);
+            if (read == 0) {
+                return -1L;
+            }
+            final var end = kept + read;
+            for (var i = 0; i + bytes.length <= end; i++) {
+                if (window[i] == bytes[0] && Arrays.equals(window, i, i + bytes.length, bytes, 0, bytes.length)) {
+                    return windowIndex + i;
+                }
+            }
+            kept = Math.min(end, bytes.length - 1);
+            System.arraycopy(window, end - kept, window, 0, kept);
+            windowIndex += end - kept;
+        }
+    }
+
+    /**
+     * Returns the index of the first match for {@code bytes} in this reader, or {@code -1} if it doesn't contain
+     * {@code bytes}. This expands the buffer as necessary until {@code bytes} is found. This reads an unbounded number
+     * of bytes into the buffer.
+     * <p>
+     * Call to this method is equivalent to {@code indexOf(bytes, 0L)}.
+     *
+     * @param bytes the sequence of bytes to find.
+     * @throws IllegalArgumentException    if {@code bytes} is empty.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default long indexOf(final @NonNull ByteString bytes) {
+        return indexOf(bytes, 0L);
+    }
+
+    /**
+     * Returns the index of the first match for {@code bytes} in this reader at or after {@code startIndex}, or
+     * {@code -1} if it doesn't contain {@code bytes}. This expands the buffer as necessary until {@code bytes} is found.
+     * This reads an unbounded number of bytes into the buffer.
+     * <p>
+     * The default implementation searches a copy of the bytes of {@code bytes} with {@link #indexOf(byte[], long)}.
+     *
+     * @param bytes      the sequence of bytes to find.
+     * @param startIndex the start of the range (inclusive) to find {@code bytes}.
+     * @throws IllegalArgumentException    if {@code bytes} is empty or if {@code startIndex} is negative.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default long indexOf(final @NonNull ByteString bytes, final long startIndex) {
+        Objects.requireNonNull(bytes);
+        return indexOf(bytes.toByteArray(), startIndex);
+    }
+
+    /**
+     * Returns the first index in this reader that contains any of the bytes in {@code targetBytes}, or {@code -1} if
+     * this reader is exhausted before any of them is found. This expands the buffer as necessary until a target byte
+     * is found. This reads an unbounded number of bytes into the buffer.
+     * <p>
+     * Call to this method is equivalent to {@code indexOfElement(targetBytes, 0L)}.
+     *
+     * @param targetBytes the set of bytes to find.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default long indexOfElement(final byte @NonNull [] targetBytes) {
+        return indexOfElement(targetBytes, 0L);
+    }
+
+    /**
+     * Returns the first index in this reader at or after {@code startIndex} that contains any of the bytes in
+     * {@code targetBytes}, or {@code -1} if this reader is exhausted before any of them is found. This expands the
+     * buffer as necessary until a target byte is found. This reads an unbounded number of bytes into the buffer.
+     * <pre>
+     * {@code
+     * byte[] ANY_VOWEL = "AEOIUaeoiu".getBytes(StandardCharsets.UTF_8);
+     *
+     * Buffer buffer = Buffer.create()
+     * .write("Dr. Alan Grant");
+     *
+     * assertThat(buffer.indexOfElement(ANY_VOWEL)).isEqualTo(4);    // 'A' in 'Alan'.
+     * assertThat(buffer.indexOfElement(ANY_VOWEL, 9)).isEqualTo(11); // 'a' in 'Grant'.
+     * }
+     * </pre>
+     *
+     * @param targetBytes the set of bytes to find.
+     * @param startIndex  the start of the range (inclusive) to find any of the bytes in {@code targetBytes}.
+     * @throws IllegalArgumentException    if {@code startIndex} is negative.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default long indexOfElement(final byte @NonNull [] targetBytes, final long startIndex) {
+        Objects.requireNonNull(targetBytes);
+        if (startIndex < 0L) {
+            throw new IllegalArgumentException("startIndex < 0: " + startIndex);
+        }
+
+        final var peek = peek();
+        if (!peek.request(startIndex)) {
+            return -1L;
+        }
+        peek.skip(startIndex);
+        if (!peek.request(1L)) {
+            return -1L;
+        }
+        final var chunk = newChunk(peek);
+        var index = startIndex;
+        while (true) {
+            final var read = readChunk(peek, chunk, 0, Long.MAX_VALUE);
+            if (read == 0) {
+                return -1L;
+            }
+            for (var i = 0; i < read; i++) {
+                for (final var targetByte : targetBytes) {
+                    if (chunk[i] == targetByte) {
+                        return index + i;
+                    }
+                }
+            }
+            index += read;
+        }
+    }
+
+    /**
+     * Returns true if the bytes at {@code offset} in this reader equal {@code bytes}. This expands the buffer as
+     * necessary until it contains {@code offset + bytes.length} bytes, or until the reader is exhausted, in which case
+     * this returns false.
+     * <pre>
+     * {@code
+     * byte[] simonSays = "Simon says:".getBytes(StandardCharsets.UTF_8);
+     *
+     * Buffer standOnOneLeg = Buffer.create().write("Simon says: Stand on one leg.");
+     * assertThat(standOnOneLeg.rangeEquals(0, simonSays)).isTrue();
+     *
+     * Buffer payMeMoney = Buffer.create().write("Pay me $1,000,000.");
+     * assertThat(payMeMoney.rangeEquals(0, simonSays)).isFalse();
+     * }
+     * </pre>
+     *
+     * @param offset the start offset (inclusive) in this reader to compare with {@code bytes}.
+     * @param bytes  the sequence of bytes to compare to.
+     * @throws JayoClosedResourceException if this reader is closed.
+     */
+    default boolean rangeEquals(final long offset, final byte @NonNull [] bytes) {
+        Objects.requireNonNull(bytes);
+        if (offset < 0L) {
+            return false;
+        }
+
+        final var peek = peek();
+        if (!peek.request(offset + bytes.length)) {
+            return false;
+        }
+        peek.skip(offset);
+        final var chunk = new byte[Math.min(bytes.length, 8192)];
+        for (var compared = 0; compared < bytes.length; ) {
+            final var toCompare = Math.min(chunk.length, bytes.length - compared);
+            peek.readTo(chunk, 0, toCompare);
+            if (!Arrays.equals(chunk, 0, toCompare, bytes, compared, compared + toCompare)) {
+                return false;
+            }
+            compared += toCompare;
+        }
+        return true;
+    }
+
     /**
      * Returns a new {@link Reader} that can read data from this reader without consuming it.
      * The returned reader becomes invalid once this reader is next read or closed.
@@ -222,4 +795,62 @@ public interface Reader extends RawReader {
      */
     @NonNull
     Reader peek();
+
+    /**
+     * Removes and returns the bytes up to {@code newline} decoded using UTF-8, then removes the line break, that is
+     * either {@code "\n"} at {@code newline} or {@code "\r\n"} at {@code newline - 1}.
+     */
+    private @NonNull String readLineUntil(final long newline) {
+        if (newline > 0L && rangeEquals(newline - 1L, new byte[]{(byte) ((int) '\r')})) {
+            // Read everything until '\r\n', then skip the '\r\n'.
+            final var result = readString(newline - 1L);
+            skip(2L);
+            return result;
+        }
+
+        // Read everything until '\n', then skip the '\n'.
+        final var result = readString(newline);
+        skip(1L);
+        return result;
+    }
+
+    /**
+     * Returns an array to copy the bytes of {@code peek} into by chunks, as big as the bytes {@code peek} already
+     * buffered, from 1 byte up to 8 KiB.
+     */
+    private static byte @NonNull [] newChunk(final @NonNull Reader peek) {
+        return new byte[Math.clamp(peek.bytesAvailable(), 1, 8192)];
+    }
+
+    /**
+     * Reads the next bytes of {@code peek} into {@code chunk} from {@code offset}, but no more than
+     * {@code maxByteCount} bytes and no more than {@code peek} buffers with a single {@link #request(long)}.
+     *
+     * @return the number of bytes read, 0 if {@code peek} is exhausted.
+     */
+    private static int readChunk(final @NonNull Reader peek,
+                                 final byte @NonNull [] chunk,
+                                 final int offset,
+                                 final long maxByteCount) {
+        if (!peek.request(1L)) {
+            return 0;
+        }
+        final var byteCount = (int) Math.min(Math.min(chunk.length - offset, maxByteCount), peek.bytesAvailable());
+        peek.readTo(chunk, offset, byteCount);
+        return byteCount;
+    }
+
+    /**
+     * Removes {@code byteCount} bytes from this reader and returns a long composed of them according to the big-endian
+     * order.
+     */
+    private long readBigEndian(final int byteCount) {
+        final var bytes = new byte[byteCount];
+        readTo(bytes, 0, byteCount);
+        var result = 0L;
+        for (final var b : bytes) {
+            result = (result << 8) | (b & 0xff);
+        }
+        return result;
+    }
 }
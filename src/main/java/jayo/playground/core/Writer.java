@@ -27,6 +27,8 @@ package jayo.playground.core;
 
 import org.jspecify.annotations.NonNull;
 
+import java.util.Objects;
+
 /**
  * A writer that facilitates typed data writes and keeps a buffer internally so that caller can write some data without
  * sending it directly to an upstream.
@@ -59,6 +61,197 @@ public interface Writer extends RawWriter {
     @NonNull
     Writer write(final @NonNull String string);
 
+    /**
+     * Writes all bytes from {@code byteString} to this writer.
+     *
+     * @param byteString the byte string source.
+     * @return {@code this}
+     * @throws JayoClosedResourceException if this writer is closed.
+     */
+    default @NonNull Writer write(final @NonNull ByteString byteString) {
+        Objects.requireNonNull(byteString);
+        return write(byteString.toByteArray());
+    }
+
+    /**
+     * Writes all bytes from {@code source} to this writer.
+     *
+     * @param source the byte array source.
+     * @return {@code this}
+     * @throws JayoClosedResourceException if this writer is closed.
+     */
+    default @NonNull Writer write(final byte @NonNull [] source) {
+        Objects.requireNonNull(source);
+        return write(source, 0, source.length);
+    }
+
+    /**
+     * Writes {@code byteCount} bytes from {@code source}, starting at {@code offset} to this writer.
+     *
+     * @param source    the byte array source.
+     * @param offset    the start offset (inclusive) in the byte array's data.
+     * @param byteCount the number of bytes to write.
+     * @return {@code this}
+     * @throws IndexOutOfBoundsException   if {@code offset} or {@code byteCount} is out of range of
+     *                                     {@code source} indices.
+     * @throws JayoClosedResourceException if this writer is closed.
+     */
+    @NonNull
+    Writer write(final byte @NonNull [] source, final int offset, final int byteCount);
+
+    /**
+     * Writes a byte to this writer.
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create();
+     * buffer.writeByte((byte) 0x40);
+     *
+     * assertThat(buffer.readByte()).isEqualTo((byte) 0x40);
+     * }
+     * </pre>
+     *
+     * @param b the byte to be written.
+     * @return {@code this}
+     * @throws JayoClosedResourceException if this writer is closed.
+     */
+    default @NonNull Writer writeByte(final byte b) {
+        return write(new byte[]{b}, 0, 1);
+    }
+
+    /**
+     * Writes two bytes containing a short, in the big-endian order, to this writer.
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create();
+     * buffer.writeShort((short) 32767);
+     * buffer.writeShort((short) 15);
+     *
+     * assertThat(buffer.bytesAvailable()).isEqualTo(4);
+     * assertThat(buffer.readByte()).isEqualTo((byte) 0x7f);
+     * assertThat(buffer.readByte()).isEqualTo((byte) 0xff);
+     * assertThat(buffer.readByte()).isEqualTo((byte) 0x00);
+     * assertThat(buffer.readByte()).isEqualTo((byte) 0x0f);
+     * assertThat(buffer.bytesAvailable()).isEqualTo(0);
+     * }
+     * </pre>
+     *
+     * @param s the short to be written.
+     * @return {@code this}
+     * @throws JayoClosedResourceException if this writer is closed.
+     */
+    default @NonNull Writer writeShort(final short s) {
+        return write(new byte[]{(byte) (s >>> 8), (byte) s}, 0, 2);
+    }
+
+    /**
+     * Writes four bytes containing an int, in the big-endian order, to this writer.
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create();
+     * buffer.writeInt(2147483647);
+     * buffer.writeInt(15);
+     *
+     * assertThat(buffer.bytesAvailable()).isEqualTo(8);
+     * assertThat(buffer.readInt()).isEqualTo(2147483647);
+     * assertThat(buffer.readInt()).isEqualTo(15);
+     * assertThat(buffer.bytesAvailable()).isEqualTo(0);
+     * }
+     * </pre>
+     *
+     * @param i the int to be written.
+     * @return {@code this}
+     * @throws JayoClosedResourceException if this writer is closed.
+     */
+    default @NonNull Writer writeInt(final int i) {
+        return write(new byte[]{(byte) (i >>> 24), (byte) (i >>> 16), (byte) (i >>> 8), (byte) i}, 0, 4);
+    }
+
+    /**
+     * Writes eight bytes containing a long, in the big-endian order, to this writer.
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create();
+     * buffer.writeLong(9223372036854775807L);
+     * buffer.writeLong(15L);
+     *
+     * assertThat(buffer.bytesAvailable()).isEqualTo(16);
+     * assertThat(buffer.readLong()).isEqualTo(9223372036854775807L);
+     * assertThat(buffer.readLong()).isEqualTo(15L);
+     * assertThat(buffer.bytesAvailable()).isEqualTo(0);
+     * }
+     * </pre>
+     *
+     * @param l the long to be written.
+     * @return {@code this}
+     * @throws JayoClosedResourceException if this writer is closed.
+     */
+    default @NonNull Writer writeLong(final long l) {
+        final var bytes = new byte[8];
+        for (var i = 0; i < 8; i++) {
+            bytes[i] = (byte) (l >>> (56 - 8 * i));
+        }
+        return write(bytes, 0, 8);
+    }
+
+    /**
+     * Writes a long to this writer in signed decimal form (i.e., as a string in base 10).
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create();
+     * buffer.writeDecimalLong(8675309L);
+     * buffer.writeByte((byte) ' ');
+     * buffer.writeDecimalLong(-123L);
+     * buffer.writeByte((byte) ' ');
+     * buffer.writeDecimalLong(1L);
+     *
+     * assertThat(buffer.readString()).isEqualTo("8675309 -123 1");
+     * }
+     * </pre>
+     *
+     * @param l the long to be written.
+     * @return {@code this}
+     * @throws JayoClosedResourceException if this writer is closed.
+     */
+    default @NonNull Writer writeDecimalLong(final long l) {
+        return write(Long.toString(l));
+    }
+
+    /**
+     * Writes a long to this writer in hexadecimal form (i.e., as a string in base 16).
+     * <pre>
+     * {@code
+     * Buffer buffer = Buffer.create();
+     * buffer.writeHexadecimalUnsignedLong(65535L);
+     * buffer.writeByte((byte) ' ');
+     * buffer.writeHexadecimalUnsignedLong(0xcafebabeL);
+     * buffer.writeByte((byte) ' ');
+     * buffer.writeHexadecimalUnsignedLong(0x10L);
+     *
+     * assertThat(buffer.readString()).isEqualTo("ffff cafebabe 10");
+     * }
+     * </pre>
+     *
+     * @param l the long to be written.
+     * @return {@code this}
+     * @throws JayoClosedResourceException if this writer is closed.
+     */
+    default @NonNull Writer writeHexadecimalUnsignedLong(final long l) {
+        return write(Long.toHexString(l));
+    }
+
+    /**
+     * Writes all buffered data to the underlying writer, if one exists. The underlying writer will not be explicitly
+     * flushed.
+     * <p>
+     * This method behaves like {@link #flush()}, but has weaker guarantees. Call this method before a buffered writer
+     * goes out of scope so that its data can reach its destination.
+     *
+     * @return {@code this}
+     * @throws JayoClosedResourceException if this writer is closed.
+     */
+    @NonNull
+    Writer emit();
+
     /**
      * Removes all bytes from {@code source} and writes them to this sink.
      *
@@ -90,6 +90,14 @@ public final class RealReader1 implements Reader {
         return segmentQueue.buffer.readString(byteCount, charset);
     }
 
+    @Override
+    public void readTo(final byte @NonNull [] destination, final int offset, final int byteCount) {
+        Objects.requireNonNull(destination);
+        Objects.checkFromIndexSize(offset, byteCount, destination.length);
+        require(byteCount);
+        segmentQueue.buffer.readTo(destination, offset, byteCount);
+    }
+
     @Override
     public long readHexadecimalUnsignedLong() {
         request(17L);
@@ -172,6 +172,22 @@ public final class RealBuffer2 implements Buffer {
         return result;
     }
 
+    @Override
+    public void readTo(final byte @NonNull [] destination, final int offset, final int byteCount) {
+        Objects.requireNonNull(destination);
+        checkOffsetAndCount(destination.length, offset, byteCount);
+        if (segmentQueue.size() < byteCount) {
+            throw new JayoEOFException();
+        }
+        if (byteCount == 0) {
+            return;
+        }
+
+        final var head = segmentQueue.head;
+        assert head != null;
+        readTo(head, destination, offset, byteCount);
+    }
+
     private byte @NonNull [] readByteArray(final @NonNull Segment head, final int byteCount) {
         final var result = new byte[byteCount];
         readTo(head, result, 0, byteCount);
@@ -560,13 +576,26 @@ public final class RealBuffer2 implements Buffer {
     public @NonNull Buffer write(final @NonNull String string) {
         Objects.requireNonNull(string);
 
-        final var bytes = string.getBytes(StandardCharsets.UTF_8);
-        final var length = bytes.length;
-        final var pos = new Wrapper.Int(0);
-        while (pos.value < length) {
+        return write(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public @NonNull Buffer write(final byte @NonNull [] source) {
+        Objects.requireNonNull(source);
+        return write(source, 0, source.length);
+    }
+
+    @Override
+    public @NonNull Buffer write(final byte @NonNull [] source, final int offset, final int byteCount) {
+        Objects.requireNonNull(source);
+        checkOffsetAndCount(source.length, offset, byteCount);
+
+        final var limit = offset + byteCount;
+        final var pos = new Wrapper.Int(offset);
+        while (pos.value < limit) {
             segmentQueue.withWritableTail(1, tail -> {
-                final var toCopy = Math.min(length - pos.value, Segment.SIZE - tail.limit);
-                System.arraycopy(bytes, pos.value, tail.data, tail.limit, toCopy);
+                final var toCopy = Math.min(limit - pos.value, Segment.SIZE - tail.limit);
+                System.arraycopy(source, pos.value, tail.data, tail.limit, toCopy);
                 pos.value += toCopy;
                 tail.limit += toCopy;
                 return null;
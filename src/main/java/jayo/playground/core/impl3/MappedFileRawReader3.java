@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl3;
+
+import jayo.playground.core.Buffer;
+import jayo.playground.core.JayoClosedResourceException;
+import jayo.playground.core.JayoException;
+import jayo.playground.core.RawReader;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+
+import static java.lang.System.Logger.Level.TRACE;
+
+/**
+ * A {@link RawReader} that maps the file in large read-only windows with {@link FileChannel#map}, then links regions of
+ * the current window into the destination buffer as read-only segments. No byte is copied from the mapped file to the
+ * Java heap, except by typed reads that need it.
+ * <p>
+ * The file size is checked each time a new window must be mapped, so bytes appended to the file after this reader was
+ * created will be read.
+ */
+public final class MappedFileRawReader3 implements RawReader {
+    private static final System.Logger LOGGER = System.getLogger("jayo.MappedFileRawReader");
+
+    /**
+     * The maximum byte size of a mapped window, 64 MiB.
+     */
+    static final int MAX_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final @NonNull FileChannel in;
+    private final int maxWindowSize;
+    /**
+     * The position in the file of the next window to map.
+     */
+    private long nextWindowPosition;
+    private @Nullable MappedByteBuffer window = null;
+    private boolean closed = false;
+
+    public MappedFileRawReader3(final @NonNull FileChannel in) {
+        this(in, MAX_WINDOW_SIZE);
+    }
+
+    /**
+     * For tests only: maps windows of at most {@code maxWindowSize} bytes.
+     */
+    MappedFileRawReader3(final @NonNull FileChannel in, final int maxWindowSize) {
+        this.in = Objects.requireNonNull(in);
+        assert maxWindowSize > 0;
+        this.maxWindowSize = maxWindowSize;
+        try {
+            nextWindowPosition = in.position();
+        } catch (IOException e) {
+            throw JayoException.buildJayoException(e);
+        }
+    }
+
+    /**
+     * Links up to byteCount bytes of the current mapped window to the destination buffer, mapping a new window first if
+     * the current one is exhausted.
+     *
+     * @return the number of bytes linked to the destination buffer, or {@code -1L} if the end of the file was reached.
+     */
+    @Override
+    public long readAtMostTo(final @NonNull Buffer destination, final long byteCount) {
+        Objects.requireNonNull(destination);
+        if (byteCount < 0L) {
+            throw new IllegalArgumentException("byteCount < 0: " + byteCount);
+        }
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        final var buffer = (RealBuffer3) destination;
+
+        if (byteCount == 0L) {
+            return 0L;
+        }
+
+        var currentWindow = window;
+        if (currentWindow == null || !currentWindow.hasRemaining()) {
+            currentWindow = mapNextWindow();
+            if (currentWindow == null) {
+                return -1L;
+            }
+        }
+
+        final var toRead = (int) Math.min(byteCount, currentWindow.remaining());
+        var windowPos = currentWindow.position();
+        final var windowLimit = windowPos + toRead;
+        while (windowPos < windowLimit) {
+            final var regionSize = Math.min(Segment.SIZE, windowLimit - windowPos);
+            buffer.segmentQueue.offer(new Segment(currentWindow.slice(windowPos, regionSize)));
+            windowPos += regionSize;
+        }
+        currentWindow.position(windowLimit);
+        buffer.byteSize += toRead;
+
+        if (LOGGER.isLoggable(TRACE)) {
+            LOGGER.log(TRACE, "MappedFileRawReader: linked {0}/{1} mapped bytes to Buffer({2}){3}",
+                    toRead, byteCount, buffer, System.lineSeparator());
+        }
+        return toRead;
+    }
+
+    private @Nullable MappedByteBuffer mapNextWindow() {
+        try {
+            final var fileSize = in.size();
+            if (nextWindowPosition >= fileSize) {
+                return null;
+            }
+            final var windowSize = Math.min(maxWindowSize, fileSize - nextWindowPosition);
+
+            if (LOGGER.isLoggable(TRACE)) {
+                LOGGER.log(TRACE, "MappedFileRawReader: mapping a new window of {0} bytes at position {1}{2}",
+                        windowSize, nextWindowPosition, System.lineSeparator());
+            }
+
+            final var newWindow = in.map(FileChannel.MapMode.READ_ONLY, nextWindowPosition, windowSize);
+            nextWindowPosition += windowSize;
+            window = newWindow;
+            return newWindow;
+        } catch (IOException e) {
+            throw JayoException.buildJayoException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // mapped windows stay valid after the channel is closed, they are unmapped when garbage collected.
+        window = null;
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw JayoException.buildJayoException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "mapped(" + in + ")";
+    }
+}
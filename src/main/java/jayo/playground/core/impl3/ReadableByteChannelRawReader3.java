@@ -11,7 +11,9 @@ import jayo.playground.core.RawReader;
 import org.jspecify.annotations.NonNull;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ScatteringByteChannel;
 import java.util.Objects;
 
 import static java.lang.System.Logger.Level.TRACE;
@@ -19,6 +21,11 @@ import static java.lang.System.Logger.Level.TRACE;
 public final class ReadableByteChannelRawReader3 implements RawReader {
     private static final System.Logger LOGGER = System.getLogger("jayo.ReadableByteChannelRawReader");
 
+    /**
+     * The maximum number of segments filled by a single scattering read.
+     */
+    static final int MAX_SCATTERED_SEGMENTS = 16;
+
     private final @NonNull ReadableByteChannel in;
 
     public ReadableByteChannelRawReader3(final @NonNull ReadableByteChannel in) {
@@ -28,6 +35,9 @@ public final class ReadableByteChannelRawReader3 implements RawReader {
     /**
      * Execute a single read from the ReadableByteChannel, which reads up to byteCount bytes of data from the readable
      * channel. A smaller number may be read.
+     * <p>
+     * If the channel is a {@link ScatteringByteChannel} and more than one segment is requested, up to
+     * {@link #MAX_SCATTERED_SEGMENTS} segments are filled by a single scattering read.
      *
      * @return the number of bytes actually read.
      */
@@ -45,29 +55,109 @@ public final class ReadableByteChannelRawReader3 implements RawReader {
 
         if (LOGGER.isLoggable(TRACE)) {
             LOGGER.log(TRACE, "ReadableByteChannelRawReader: Start reading up to {0} bytes from the " +
-                    "ReadableByteChannel to Buffer({2}){3}", byteCount, buffer, System.lineSeparator());
+                    "ReadableByteChannel to Buffer({1}){2}", byteCount, buffer, System.lineSeparator());
         }
 
-        final var tail = buffer.writableTail(1);
-        final var tailByteBuffer = tail.byteBuffer;
-        tailByteBuffer.mark();
-        tailByteBuffer.position(tailByteBuffer.limit());
-        final var toRead = (int) Math.min(byteCount, Segment.SIZE - tailByteBuffer.limit());
-        tailByteBuffer.limit(tailByteBuffer.limit() + toRead);
+        final long read;
         try {
-            final var read = in.read(tailByteBuffer);
-            if (LOGGER.isLoggable(TRACE)) {
-                LOGGER.log(TRACE, "ReadableByteChannelRawReader: Finished reading {0}/{1} bytes from the " +
-                                "ReadableByteChannel to Buffer({3}){4}",
-                        read, byteCount, buffer, System.lineSeparator());
+            if (byteCount > Segment.SIZE && in instanceof ScatteringByteChannel scatteringIn) {
+                read = scatteringRead(scatteringIn, buffer, byteCount);
+            } else {
+                read = singleRead(buffer, byteCount);
             }
-            buffer.byteSize += read;
-            return read;
         } catch (IOException e) {
             throw JayoException.buildJayoException(e);
+        }
+
+        if (LOGGER.isLoggable(TRACE)) {
+            LOGGER.log(TRACE, "ReadableByteChannelRawReader: Finished reading {0}/{1} bytes from the " +
+                            "ReadableByteChannel to Buffer({2}){3}",
+                    read, byteCount, buffer, System.lineSeparator());
+        }
+        if (read > 0L) {
+            buffer.byteSize += read;
+        }
+        return read;
+    }
+
+    private int singleRead(final @NonNull RealBuffer3 buffer, final long byteCount) throws IOException {
+        assert buffer != null;
+
+        final var tail = buffer.segmentQueue.peekLast();
+        final var tailIsWritable = tail != null && tail.isOwner() && tail.byteBuffer.limit() < Segment.SIZE;
+        final var segment = tailIsWritable ? tail : SegmentPool.take();
+
+        final var byteBuffer = segment.byteBuffer;
+        final var pos = byteBuffer.position();
+        final var limit = byteBuffer.limit();
+        byteBuffer.position(limit);
+        byteBuffer.limit(limit + (int) Math.min(byteCount, Segment.SIZE - limit));
+        try {
+            return in.read(byteBuffer);
         } finally {
-            tailByteBuffer.limit(tailByteBuffer.position());
-            tailByteBuffer.reset();
+            byteBuffer.limit(byteBuffer.position());
+            byteBuffer.position(pos);
+            if (!tailIsWritable) {
+                if (byteBuffer.hasRemaining()) {
+                    buffer.segmentQueue.offer(segment);
+                } else {
+                    // We took a new segment, but didn't end up needing it. Recycle!
+                    SegmentPool.recycle(segment);
+                }
+            }
+        }
+    }
+
+    private long scatteringRead(final @NonNull ScatteringByteChannel in,
+                                final @NonNull RealBuffer3 buffer,
+                                final long byteCount) throws IOException {
+        assert in != null;
+        assert buffer != null;
+
+        // the current tail is filled first if it is writable, then new segments taken from the pool are linked after it.
+        final var tail = buffer.segmentQueue.peekLast();
+        final var tailIsWritable = tail != null && tail.isOwner() && tail.byteBuffer.limit() < Segment.SIZE;
+        final var tailToRead = tailIsWritable ? Segment.SIZE - tail.byteBuffer.limit() : 0;
+        final var toReadInNewSegments = byteCount - tailToRead;
+        final var newSegmentCount = (toReadInNewSegments <= 0L) ? 0 :
+                (int) Math.min(MAX_SCATTERED_SEGMENTS - (tailIsWritable ? 1 : 0),
+                        (toReadInNewSegments - 1L) / Segment.SIZE + 1L);
+
+        final var segments = new Segment[newSegmentCount + (tailIsWritable ? 1 : 0)];
+        final var positions = new int[segments.length];
+        final var byteBuffers = new ByteBuffer[segments.length];
+        var remaining = byteCount;
+        for (var i = 0; i < segments.length; i++) {
+            final var segment = (i == 0 && tailIsWritable) ? tail : SegmentPool.take();
+            final var byteBuffer = segment.byteBuffer;
+            segments[i] = segment;
+            positions[i] = byteBuffer.position();
+            final var limit = byteBuffer.limit();
+            final var toRead = (int) Math.min(remaining, Segment.SIZE - limit);
+            byteBuffer.position(limit);
+            byteBuffer.limit(limit + toRead);
+            byteBuffers[i] = byteBuffer;
+            remaining -= toRead;
+        }
+
+        try {
+            return in.read(byteBuffers);
+        } finally {
+            for (var i = 0; i < segments.length; i++) {
+                final var segment = segments[i];
+                final var byteBuffer = segment.byteBuffer;
+                byteBuffer.limit(byteBuffer.position());
+                byteBuffer.position(positions[i]);
+                if (segment == tail) {
+                    continue;
+                }
+                if (byteBuffer.hasRemaining()) {
+                    buffer.segmentQueue.offer(segment);
+                } else {
+                    // We took a new segment, but didn't end up needing it. Recycle!
+                    SegmentPool.recycle(segment);
+                }
+            }
         }
     }
 
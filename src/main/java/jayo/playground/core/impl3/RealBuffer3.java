@@ -181,9 +181,14 @@ public final class RealBuffer3 implements Buffer {
         return result;
     }
 
-    private void readTo(final byte @NonNull [] writer,
-                        final int offset,
-                        final int byteCount) {
+    @Override
+    public void readTo(final byte @NonNull [] writer, final int offset, final int byteCount) {
+        Objects.requireNonNull(writer);
+        checkOffsetAndCount(writer.length, offset, byteCount);
+        if (byteSize < byteCount) {
+            throw new JayoEOFException();
+        }
+
         var _offset = offset;
         var remaining = byteCount;
         while (remaining > 0) {
@@ -415,19 +420,32 @@ public final class RealBuffer3 implements Buffer {
     public @NonNull Buffer write(final @NonNull String string) {
         Objects.requireNonNull(string);
 
-        final var bytes = string.getBytes(StandardCharsets.UTF_8);
-        final var length = bytes.length;
-        var pos = 0;
-        while (pos < length) {
+        return write(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public @NonNull Buffer write(final byte @NonNull [] source) {
+        Objects.requireNonNull(source);
+        return write(source, 0, source.length);
+    }
+
+    @Override
+    public @NonNull Buffer write(final byte @NonNull [] source, final int offset, final int byteCount) {
+        Objects.requireNonNull(source);
+        checkOffsetAndCount(source.length, offset, byteCount);
+
+        final var limit = offset + byteCount;
+        var _offset = offset;
+        while (_offset < limit) {
             final var tail = writableTail(1);
             final var tailByteBuffer = tail.byteBuffer;
             final var tailLimit = tailByteBuffer.limit();
-            final var toCopy = Math.min(length - pos, Segment.SIZE - tailLimit);
+            final var toCopy = Math.min(limit - _offset, Segment.SIZE - tailLimit);
             tailByteBuffer.limit(tailLimit + toCopy);
-            tailByteBuffer.put(tailLimit, bytes, pos, toCopy);
-            pos += toCopy;
+            tailByteBuffer.put(tailLimit, source, _offset, toCopy);
+            _offset += toCopy;
         }
-        byteSize += length;
+        byteSize += byteCount;
         return this;
     }
 
@@ -499,7 +517,8 @@ public final class RealBuffer3 implements Buffer {
 
         var totalBytesRead = 0L;
         while (true) {
-            final var readCount = source.readAtMostTo(this, Segment.SIZE);
+            // let the source decide how many bytes it reads at once, a scattering channel reader fills many segments.
+            final var readCount = source.readAtMostTo(this, Long.MAX_VALUE);
             if (readCount == -1L) {
                 break;
             }
@@ -51,7 +51,7 @@ public final class RealReader3 implements Reader {
             if (byteCount == 0L) {
                 return 0L;
             }
-            if (reader.readAtMostTo(buffer, Segment.SIZE) == -1L) {
+            if (reader.readAtMostTo(buffer, Math.max(Segment.SIZE, byteCount)) == -1L) {
                 return -1L;
             }
         }
@@ -85,6 +85,14 @@ public final class RealReader3 implements Reader {
         return buffer.readString(byteCount, charset);
     }
 
+    @Override
+    public void readTo(final byte @NonNull [] destination, final int offset, final int byteCount) {
+        Objects.requireNonNull(destination);
+        Objects.checkFromIndexSize(offset, byteCount, destination.length);
+        require(byteCount);
+        buffer.readTo(destination, offset, byteCount);
+    }
+
     @Override
     public long readHexadecimalUnsignedLong() {
         require(1L);
@@ -134,7 +142,9 @@ public final class RealReader3 implements Reader {
             throw new JayoClosedResourceException();
         }
         while (buffer.bytesAvailable() < byteCount) {
-            if (reader.readAtMostTo(buffer, Segment.SIZE) == -1L) {
+            // request all the missing bytes at once, so a large request is served by a single scattering read
+            final var missing = byteCount - buffer.bytesAvailable();
+            if (reader.readAtMostTo(buffer, Math.max(Segment.SIZE, missing)) == -1L) {
                 return false;
             }
         }
@@ -166,7 +176,8 @@ public final class RealReader3 implements Reader {
     private long skipPrivate(final long byteCount) {
         var remaining = byteCount;
         while (remaining > 0) {
-            if (buffer.bytesAvailable() == 0L && reader.readAtMostTo(buffer, Segment.SIZE) == -1L) {
+            if (buffer.bytesAvailable() == 0L &&
+                    reader.readAtMostTo(buffer, Math.max(Segment.SIZE, remaining)) == -1L) {
                 throw new JayoEOFException();
             }
             final var toSkip = Math.min(remaining, buffer.bytesAvailable());
@@ -24,6 +24,7 @@ package jayo.playground.core.impl3;
 import org.jspecify.annotations.NonNull;
 
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.util.concurrent.atomic.LongAdder;
 
 final class Segment {
@@ -55,6 +56,18 @@ final class Segment {
         copyTracker = new CopyTracker(this);
     }
 
+    /**
+     * A segment that wraps a read-only region of a memory-mapped file. This segment is not an owner, so it will never be
+     * written to or pooled.
+     */
+    Segment(final @NonNull MappedByteBuffer mappedRegion) {
+        assert mappedRegion != null;
+        assert mappedRegion.isReadOnly();
+
+        byteBuffer = mappedRegion;
+        copyTracker = new CopyTracker(this);
+    }
+
     private Segment(final @NonNull ByteBuffer byteBuffer, final @NonNull CopyTracker copyTracker) {
         assert byteBuffer != null;
         assert copyTracker != null;
@@ -102,6 +115,8 @@ final class Segment {
             prefix = sharedCopy();
         } else {
             prefix = SegmentPool.take();
+            // the absolute put must stay within the limit of the new segment
+            prefix.byteBuffer.limit(byteCount);
             prefix.byteBuffer.put(0, byteBuffer, byteBuffer.position(), byteCount);
         }
         prefix.byteBuffer.limit(prefix.byteBuffer.position() + byteCount);
@@ -122,11 +137,15 @@ final class Segment {
             if (targetSegment.byteBuffer.limit() + byteCount - targetSegment.byteBuffer.position() > SIZE) {
                 throw new IllegalArgumentException("not enough space in writer segment to write " + byteCount + " bytes");
             }
+            // compact then flip, so the data starts at position 0 and ends at the limit.
             targetSegment.byteBuffer.compact();
+            targetSegment.byteBuffer.flip();
         }
 
-        targetSegment.byteBuffer.put(targetSegment.byteBuffer.position(), byteBuffer, byteBuffer.position(), byteCount);
-        targetSegment.byteBuffer.limit(targetSegment.byteBuffer.limit() + byteCount);
+        // bytes are appended after the limit of the target segment
+        final var targetLimit = targetSegment.byteBuffer.limit();
+        targetSegment.byteBuffer.limit(targetLimit + byteCount);
+        targetSegment.byteBuffer.put(targetLimit, byteBuffer, byteBuffer.position(), byteCount);
         byteBuffer.position(byteBuffer.position() + byteCount);
     }
 
@@ -194,6 +194,9 @@ final class SegmentPool {
             return; // This segment cannot be recycled.
         }
         final var toRecycle = segmentCopyTracker.origin;
+        if (!toRecycle.isOwner()) {
+            return; // This segment wraps a memory-mapped region, it cannot be recycled.
+        }
 
         final var cacheRef = HASH_BUCKETS[l1BucketId(Thread.currentThread())];
 
@@ -221,9 +221,14 @@ public final class RealBuffer4 implements Buffer {
         return result;
     }
 
-    private void readTo(final byte @NonNull [] writer,
-                        final int offset,
-                        final int byteCount) {
+    @Override
+    public void readTo(final byte @NonNull [] writer, final int offset, final int byteCount) {
+        Objects.requireNonNull(writer);
+        checkOffsetAndCount(writer.length, offset, byteCount);
+        if (byteSize < byteCount) {
+            throw new JayoEOFException();
+        }
+
         var _offset = offset;
         var remaining = byteCount;
         while (remaining > 0) {
@@ -456,17 +461,30 @@ public final class RealBuffer4 implements Buffer {
     public @NonNull Buffer write(final @NonNull String string) {
         Objects.requireNonNull(string);
 
-        final var bytes = string.getBytes(StandardCharsets.UTF_8);
-        final var length = bytes.length;
-        var pos = 0;
-        while (pos < length) {
+        return write(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public @NonNull Buffer write(final byte @NonNull [] source) {
+        Objects.requireNonNull(source);
+        return write(source, 0, source.length);
+    }
+
+    @Override
+    public @NonNull Buffer write(final byte @NonNull [] source, final int offset, final int byteCount) {
+        Objects.requireNonNull(source);
+        checkOffsetAndCount(source.length, offset, byteCount);
+
+        final var limit = offset + byteCount;
+        var _offset = offset;
+        while (_offset < limit) {
             final var tail = writableTail(1);
-            final var toCopy = Math.min(length - pos, Segment.SIZE - tail.limit);
-            System.arraycopy(bytes, pos, tail.data, tail.limit, toCopy);
-            pos += toCopy;
+            final var toCopy = Math.min(limit - _offset, Segment.SIZE - tail.limit);
+            System.arraycopy(source, _offset, tail.data, tail.limit, toCopy);
+            _offset += toCopy;
             tail.limit += toCopy;
         }
-        byteSize += length;
+        byteSize += byteCount;
         return this;
     }
 
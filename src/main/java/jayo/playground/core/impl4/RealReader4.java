@@ -85,6 +85,14 @@ public final class RealReader4 implements Reader {
         return buffer.readString(byteCount, charset);
     }
 
+    @Override
+    public void readTo(final byte @NonNull [] destination, final int offset, final int byteCount) {
+        Objects.requireNonNull(destination);
+        Objects.checkFromIndexSize(offset, byteCount, destination.length);
+        require(byteCount);
+        buffer.readTo(destination, offset, byteCount);
+    }
+
     @Override
     public long readHexadecimalUnsignedLong() {
         require(1L);
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ *
+ * Forked from Okio (https://github.com/square/okio), original copyright is below
+ *
+ * Copyright (C) 2013 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jayo.playground.core.impl5;
+
+import jayo.playground.core.Buffer;
+import jayo.playground.core.JayoClosedResourceException;
+import jayo.playground.core.RawWriter;
+import org.jspecify.annotations.NonNull;
+
+import java.util.Objects;
+import java.util.zip.Deflater;
+
+import static jayo.playground.core.impl5.Utils.checkOffsetAndCount;
+
+/**
+ * A raw writer that uses <a href="https://datatracker.ietf.org/doc/html/rfc1951">DEFLATE</a> to compress data written
+ * to another writer.
+ * <p>
+ * The bytes to compress are passed to the {@link Deflater} directly from the segments of the source buffer, and the
+ * deflater writes the compressed bytes directly into the tail segment of the downstream writer's buffer.
+ * <h3>Sync flush</h3>
+ * Aggressive flushing of this writer may result in reduced compression. Each call to {@link #flush} immediately
+ * compresses all currently buffered data; this early compression may be less effective than compression performed
+ * without flushing.
+ * <p>
+ * This is equivalent to using {@link Deflater} with the sync flush option.
+ */
+public final class DeflaterRawWriter5 implements RawWriter {
+    private static final byte @NonNull [] EMPTY_BYTE_ARRAY = new byte[0];
+
+    private final @NonNull RealWriter5 writer;
+    private final @NonNull Deflater deflater;
+    private boolean closed = false;
+
+    public DeflaterRawWriter5(final @NonNull RawWriter writer, final @NonNull Deflater deflater) {
+        this(new RealWriter5(Objects.requireNonNull(writer)), deflater);
+    }
+
+    DeflaterRawWriter5(final @NonNull RealWriter5 writer, final @NonNull Deflater deflater) {
+        assert writer != null;
+        this.writer = writer;
+        this.deflater = Objects.requireNonNull(deflater);
+    }
+
+    @Override
+    public void write(final @NonNull Buffer source, final long byteCount) {
+        Objects.requireNonNull(source);
+        checkOffsetAndCount(source.bytesAvailable(), 0L, byteCount);
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        final var src = (RealBuffer5) source;
+
+        var remaining = byteCount;
+        while (remaining > 0L) {
+            // Share bytes from the head segment of 'source' with the deflater.
+            final var head = src.head;
+            assert head != null;
+            final var toDeflate = (int) Math.min(remaining, head.limit - head.pos);
+            deflater.setInput(head.data, head.offset + head.pos, toDeflate);
+
+            // Deflate those bytes into the writer.
+            deflate(false);
+
+            // Mark those bytes as read.
+            src.skipInternal(toDeflate);
+            remaining -= toDeflate;
+        }
+
+        // Deflater still holds a reference to the most recent segment's byte array. That can cause problems in JNI, so
+        // clear it now.
+        deflater.setInput(EMPTY_BYTE_ARRAY, 0, 0);
+    }
+
+    private void deflate(final boolean syncFlush) {
+        final var buffer = writer.buffer;
+        while (true) {
+            final var tail = buffer.writableTail(1);
+            final var deflated = deflater.deflate(tail.data, tail.offset + tail.limit, Segment.SIZE - tail.limit,
+                    (syncFlush) ? Deflater.SYNC_FLUSH : Deflater.NO_FLUSH);
+
+            if (deflated > 0) {
+                tail.limit += deflated;
+                buffer.byteSize += deflated;
+                writer.emitCompleteSegments();
+            } else if (deflater.needsInput()) {
+                if (tail.pos == tail.limit) {
+                    // We allocated a tail segment, but didn't end up needing it. Recycle!
+                    buffer.head = tail.pop();
+                    SegmentPool.recycle(tail);
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        deflate(true);
+        writer.flush();
+    }
+
+    /**
+     * Finishes the compressed stream, the compressed bytes are written to the downstream writer's buffer but not
+     * flushed.
+     */
+    void finishDeflate() {
+        deflater.finish();
+        deflate(false);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        // Emit deflated data to the underlying writer. If this fails, we still need to close the deflater and the
+        // writer; otherwise we risk leaking resources.
+        Throwable thrown = null;
+        try {
+            finishDeflate();
+        } catch (Throwable t) {
+            thrown = t;
+        }
+
+        try {
+            deflater.end();
+        } catch (Throwable t) {
+            if (thrown == null) {
+                thrown = t;
+            }
+        }
+
+        try {
+            writer.close();
+        } catch (Throwable t) {
+            if (thrown == null) {
+                thrown = t;
+            }
+        }
+
+        closed = true;
+
+        if (thrown != null) {
+            if (thrown instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (thrown instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(thrown);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "deflate(" + writer + ")";
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ *
+ * Forked from Okio (https://github.com/square/okio), original copyright is below
+ *
+ * Copyright (C) 2013 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jayo.playground.core.impl5;
+
+import jayo.playground.core.Buffer;
+import jayo.playground.core.JayoClosedResourceException;
+import jayo.playground.core.JayoEOFException;
+import jayo.playground.core.JayoException;
+import jayo.playground.core.RawReader;
+import org.jspecify.annotations.NonNull;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+
+/**
+ * A raw reader that uses <a href="https://datatracker.ietf.org/doc/html/rfc1952">GZIP</a> to decompress data read from
+ * another reader. The header and trailer are checked, and the body is inflated by an {@link InflaterRawReader5} that
+ * reads from the same buffered reader.
+ */
+public final class GzipRawReader5 implements RawReader {
+    private static final byte FHCRC = 1;
+    private static final byte FEXTRA = 2;
+    private static final byte FNAME = 3;
+    private static final byte FCOMMENT = 4;
+
+    private static final byte SECTION_HEADER = 0;
+    private static final byte SECTION_BODY = 1;
+    private static final byte SECTION_TRAILER = 2;
+    private static final byte SECTION_DONE = 3;
+
+    /**
+     * The current section. Always progresses forward.
+     */
+    private byte section = SECTION_HEADER;
+
+    /**
+     * Our reader should yield a GZIP header (which we consume directly), followed by deflated bytes (which we consume via
+     * an InflaterRawReader), followed by a GZIP trailer (which we also consume directly).
+     */
+    private final @NonNull RealReader5 reader;
+
+    /**
+     * The inflater used to decompress the deflated body.
+     */
+    private final @NonNull Inflater inflater = new Inflater(true);
+
+    /**
+     * The inflater reader takes care of moving data between compressed reader and decompressed destination buffers.
+     */
+    private final @NonNull InflaterRawReader5 inflaterReader;
+
+    /**
+     * Checksum used to check both the GZIP header and decompressed body.
+     */
+    private final @NonNull CRC32 crc = new CRC32();
+
+    private boolean closed = false;
+
+    public GzipRawReader5(final @NonNull RawReader reader) {
+        this.reader = new RealReader5(Objects.requireNonNull(reader));
+        this.inflaterReader = new InflaterRawReader5(this.reader, inflater);
+    }
+
+    @Override
+    public long readAtMostTo(final @NonNull Buffer destination, final long byteCount) {
+        Objects.requireNonNull(destination);
+        if (byteCount < 0L) {
+            throw new IllegalArgumentException("byteCount < 0: " + byteCount);
+        }
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        if (byteCount == 0L) {
+            return 0L;
+        }
+        final var dst = (RealBuffer5) destination;
+
+        // If we haven't consumed the header, we must consume it before anything else.
+        if (section == SECTION_HEADER) {
+            consumeHeader();
+            section = SECTION_BODY;
+        }
+
+        // Attempt to read at least a byte of the body. If we do, we're done.
+        if (section == SECTION_BODY) {
+            final var offset = dst.byteSize;
+            final var result = inflaterReader.readAtMostTo(dst, byteCount);
+            if (result != -1L) {
+                dst.forEachRange(offset, result, crc::update);
+                return result;
+            }
+            section = SECTION_TRAILER;
+        }
+
+        // The body is exhausted; time to read the trailer. We always consume the trailer before returning a -1
+        // exhausted result; that way if you read to the end of a GzipRawReader you guarantee that the CRC has been
+        // checked.
+        if (section == SECTION_TRAILER) {
+            consumeTrailer();
+            section = SECTION_DONE;
+
+            // Gzip streams self-terminate: they return -1 before their underlying reader returns -1. Here we attempt
+            // to force the underlying reader to return -1 which may trigger it to release its resources. If it doesn't
+            // return -1, then our Gzip data finished prematurely!
+            if (!reader.exhausted()) {
+                throw new JayoException(new IOException("gzip finished without exhausting reader"));
+            }
+        }
+
+        return -1L;
+    }
+
+    private void consumeHeader() {
+        // Read the 10-byte header. We peek at the flags byte first so we know if we need to CRC the entire header. Then
+        // we read the magic ID1ID2 sequence. We can skip everything else in the first 10 bytes.
+        // +---+---+---+---+---+---+---+---+---+---+
+        // |ID1|ID2|CM |FLG|     MTIME     |XFL|OS | (more-->)
+        // +---+---+---+---+---+---+---+---+---+---+
+        reader.require(10L);
+        final var flags = reader.buffer.getByte(3L);
+        final var fhcrc = getBit(flags, FHCRC);
+        if (fhcrc) {
+            reader.buffer.forEachRange(0L, 10L, crc::update);
+        }
+
+        final var id1id2 = reader.readShort();
+        checkEqual("ID1ID2", (short) 0x1f8b, id1id2);
+        reader.skip(8L);
+
+        // Skip optional extra fields.
+        // +---+---+=================================+
+        // | XLEN  |...XLEN bytes of "extra field"...| (more-->)
+        // +---+---+=================================+
+        if (getBit(flags, FEXTRA)) {
+            reader.require(2L);
+            if (fhcrc) {
+                reader.buffer.forEachRange(0L, 2L, crc::update);
+            }
+            final long xlen = Short.toUnsignedInt(Short.reverseBytes(reader.readShort()));
+            reader.require(xlen);
+            if (fhcrc) {
+                reader.buffer.forEachRange(0L, xlen, crc::update);
+            }
+            reader.skip(xlen);
+        }
+
+        // Skip an optional 0-terminated name.
+        // +=========================================+
+        // |...original file name, zero-terminated...| (more-->)
+        // +=========================================+
+        if (getBit(flags, FNAME)) {
+            skipZeroTerminated(fhcrc);
+        }
+
+        // Skip an optional 0-terminated comment.
+        // +===================================+
+        // |...file comment, zero-terminated...| (more-->)
+        // +===================================+
+        if (getBit(flags, FCOMMENT)) {
+            skipZeroTerminated(fhcrc);
+        }
+
+        // Confirm the optional header CRC.
+        // +---+---+
+        // | CRC16 |
+        // +---+---+
+        if (fhcrc) {
+            checkEqual("FHCRC", Short.reverseBytes(reader.readShort()), (short) crc.getValue());
+            crc.reset();
+        }
+    }
+
+    private void skipZeroTerminated(final boolean fhcrc) {
+        final var index = reader.indexOf((byte) 0);
+        if (index == -1L) {
+            throw new JayoEOFException();
+        }
+        if (fhcrc) {
+            reader.buffer.forEachRange(0L, index + 1, crc::update);
+        }
+        reader.skip(index + 1);
+    }
+
+    private void consumeTrailer() {
+        // Read the eight-byte trailer. Confirm the body's CRC and size.
+        // +---+---+---+---+---+---+---+---+
+        // |     CRC32     |     ISIZE     |
+        // +---+---+---+---+---+---+---+---+
+        checkEqual("CRC", Integer.reverseBytes(reader.readInt()), (int) crc.getValue());
+        checkEqual("ISIZE", Integer.reverseBytes(reader.readInt()), (int) inflater.getBytesWritten());
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        inflaterReader.close();
+    }
+
+    @Override
+    public String toString() {
+        return "gzip(" + reader + ")";
+    }
+
+    private static boolean getBit(final byte flags, final int bit) {
+        return ((flags >> bit) & 1) == 1;
+    }
+
+    private static void checkEqual(final @NonNull String name, final int expected, final int actual) {
+        if (actual != expected) {
+            throw new JayoException(new IOException(
+                    String.format("%s: actual 0x%08x != expected 0x%08x", name, actual, expected)));
+        }
+    }
+}
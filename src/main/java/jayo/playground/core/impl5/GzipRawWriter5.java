@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ *
+ * Forked from Okio (https://github.com/square/okio), original copyright is below
+ *
+ * Copyright (C) 2013 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jayo.playground.core.impl5;
+
+import jayo.playground.core.Buffer;
+import jayo.playground.core.JayoClosedResourceException;
+import jayo.playground.core.RawWriter;
+import org.jspecify.annotations.NonNull;
+
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static jayo.playground.core.impl5.Utils.checkOffsetAndCount;
+
+/**
+ * A raw writer that uses <a href="https://datatracker.ietf.org/doc/html/rfc1952">GZIP</a> to compress written data to
+ * another writer. The body is deflated by a {@link DeflaterRawWriter5} that writes to the same buffered writer, between
+ * a minimal header and the trailer.
+ * <h3>Sync flush</h3>
+ * Aggressive flushing of this writer may result in reduced compression. Each call to {@link #flush} immediately
+ * compresses all currently buffered data; this early compression may be less effective than compression performed
+ * without flushing.
+ * <p>
+ * This is equivalent to using {@link Deflater} with the sync flush option.
+ */
+public final class GzipRawWriter5 implements RawWriter {
+    /**
+     * Writer into which the GZIP format is written.
+     */
+    private final @NonNull RealWriter5 writer;
+
+    /**
+     * The deflater used to compress the body.
+     */
+    private final @NonNull Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+    /**
+     * The deflater writer takes care of moving data between decompressed source and compressed destination buffers.
+     */
+    private final @NonNull DeflaterRawWriter5 deflaterWriter;
+
+    /**
+     * Checksum calculated for the compressed body.
+     */
+    private final @NonNull CRC32 crc = new CRC32();
+
+    private boolean closed = false;
+
+    public GzipRawWriter5(final @NonNull RawWriter writer) {
+        this.writer = new RealWriter5(Objects.requireNonNull(writer));
+        this.deflaterWriter = new DeflaterRawWriter5(this.writer, deflater);
+
+        // Write the Gzip header directly into the buffer for the writer to avoid handling JayoException.
+        this.writer.buffer
+                .writeShort((short) 0x1f8b) // Two-byte Gzip ID.
+                .writeByte((byte) 0x08) // 8 == Deflate compression method.
+                .writeByte((byte) 0x00) // No flags.
+                .writeInt(0x00) // No modification time.
+                .writeByte((byte) 0x00) // No extra flags.
+                .writeByte((byte) 0x00); // No OS.
+    }
+
+    @Override
+    public void write(final @NonNull Buffer source, final long byteCount) {
+        Objects.requireNonNull(source);
+        checkOffsetAndCount(source.bytesAvailable(), 0L, byteCount);
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        if (byteCount == 0L) {
+            return;
+        }
+        final var src = (RealBuffer5) source;
+
+        src.forEachRange(0L, byteCount, crc::update);
+        deflaterWriter.write(src, byteCount);
+    }
+
+    @Override
+    public void flush() {
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        deflaterWriter.flush();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        // This method delegates to the DeflaterRawWriter5 for finishing the deflate process but manages its own
+        // closing of the deflater and the writer. This is necessary because the trailer must be written after
+        // deflation completes but before the writer is closed.
+        Throwable thrown = null;
+        try {
+            deflaterWriter.finishDeflate();
+            writeTrailer();
+        } catch (Throwable t) {
+            thrown = t;
+        }
+
+        try {
+            deflater.end();
+        } catch (Throwable t) {
+            if (thrown == null) {
+                thrown = t;
+            }
+        }
+
+        try {
+            writer.close();
+        } catch (Throwable t) {
+            if (thrown == null) {
+                thrown = t;
+            }
+        }
+
+        closed = true;
+
+        if (thrown != null) {
+            if (thrown instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (thrown instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(thrown);
+        }
+    }
+
+    private void writeTrailer() {
+        writer.writeInt(Integer.reverseBytes((int) crc.getValue())); // CRC of original data.
+        writer.writeInt(Integer.reverseBytes((int) deflater.getBytesRead())); // Length of original data.
+    }
+
+    @Override
+    public String toString() {
+        return "gzip(" + writer + ")";
+    }
+}
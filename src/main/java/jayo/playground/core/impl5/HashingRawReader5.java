@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl5;
+
+import jayo.playground.core.Buffer;
+import jayo.playground.core.RawReader;
+import org.jspecify.annotations.NonNull;
+
+import java.security.MessageDigest;
+import java.util.Objects;
+import java.util.zip.Checksum;
+
+/**
+ * A raw reader that updates a {@link Checksum} or a {@link MessageDigest} with all the bytes it reads from its
+ * delegate. The bytes are passed in place, segment by segment, from the destination buffer.
+ */
+public final class HashingRawReader5 implements RawReader {
+    private final @NonNull RawReader delegate;
+    private final RealBuffer5.@NonNull ByteRangeConsumer hasher;
+
+    public HashingRawReader5(final @NonNull RawReader delegate, final @NonNull Checksum checksum) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.hasher = Objects.requireNonNull(checksum)::update;
+    }
+
+    public HashingRawReader5(final @NonNull RawReader delegate, final @NonNull MessageDigest messageDigest) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.hasher = Objects.requireNonNull(messageDigest)::update;
+    }
+
+    @Override
+    public long readAtMostTo(final @NonNull Buffer destination, final long byteCount) {
+        Objects.requireNonNull(destination);
+        final var dst = (RealBuffer5) destination;
+
+        final var previousSize = dst.byteSize;
+        final var read = delegate.readAtMostTo(dst, byteCount);
+        if (read > 0L) {
+            dst.forEachRange(previousSize, read, hasher);
+        }
+        return read;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public String toString() {
+        return "hashing(" + delegate + ")";
+    }
+}
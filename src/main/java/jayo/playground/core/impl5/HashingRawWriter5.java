@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl5;
+
+import jayo.playground.core.Buffer;
+import jayo.playground.core.RawWriter;
+import org.jspecify.annotations.NonNull;
+
+import java.security.MessageDigest;
+import java.util.Objects;
+import java.util.zip.Checksum;
+
+import static jayo.playground.core.impl5.Utils.checkOffsetAndCount;
+
+/**
+ * A raw writer that updates a {@link Checksum} or a {@link MessageDigest} with all the bytes it writes to its
+ * delegate. The bytes are passed in place, segment by segment, from the source buffer.
+ */
+public final class HashingRawWriter5 implements RawWriter {
+    private final @NonNull RawWriter delegate;
+    private final RealBuffer5.@NonNull ByteRangeConsumer hasher;
+
+    public HashingRawWriter5(final @NonNull RawWriter delegate, final @NonNull Checksum checksum) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.hasher = Objects.requireNonNull(checksum)::update;
+    }
+
+    public HashingRawWriter5(final @NonNull RawWriter delegate, final @NonNull MessageDigest messageDigest) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.hasher = Objects.requireNonNull(messageDigest)::update;
+    }
+
+    @Override
+    public void write(final @NonNull Buffer source, final long byteCount) {
+        Objects.requireNonNull(source);
+        checkOffsetAndCount(source.bytesAvailable(), 0L, byteCount);
+        final var src = (RealBuffer5) source;
+
+        src.forEachRange(0L, byteCount, hasher);
+        delegate.write(src, byteCount);
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public String toString() {
+        return "hashing(" + delegate + ")";
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ *
+ * Forked from Okio (https://github.com/square/okio), original copyright is below
+ *
+ * Copyright (C) 2013 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jayo.playground.core.impl5;
+
+import jayo.playground.core.Buffer;
+import jayo.playground.core.JayoClosedResourceException;
+import jayo.playground.core.JayoEOFException;
+import jayo.playground.core.JayoException;
+import jayo.playground.core.RawReader;
+import org.jspecify.annotations.NonNull;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A raw reader that uses <a href="https://datatracker.ietf.org/doc/html/rfc1951">DEFLATE</a> to decompress data read
+ * from another reader.
+ * <p>
+ * The compressed bytes are passed to the {@link Inflater} directly from the head segment of the upstream reader's
+ * buffer, and the inflater writes the decompressed bytes directly into the tail segment of the destination buffer, so
+ * no intermediate array is involved.
+ */
+public final class InflaterRawReader5 implements RawReader {
+    private final @NonNull RealReader5 reader;
+    private final @NonNull Inflater inflater;
+    /**
+     * When we call {@link Inflater#setInput}, the inflater keeps our byte array until it needs input again. This tracks
+     * how many bytes the inflater is currently holding on to.
+     */
+    private int bufferBytesHeldByInflater = 0;
+    private boolean closed = false;
+
+    public InflaterRawReader5(final @NonNull RawReader reader, final @NonNull Inflater inflater) {
+        this(new RealReader5(Objects.requireNonNull(reader)), inflater);
+    }
+
+    InflaterRawReader5(final @NonNull RealReader5 reader, final @NonNull Inflater inflater) {
+        assert reader != null;
+        this.reader = reader;
+        this.inflater = Objects.requireNonNull(inflater);
+    }
+
+    @Override
+    public long readAtMostTo(final @NonNull Buffer destination, final long byteCount) {
+        Objects.requireNonNull(destination);
+        if (byteCount < 0L) {
+            throw new IllegalArgumentException("byteCount < 0: " + byteCount);
+        }
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        final var dst = (RealBuffer5) destination;
+
+        while (true) {
+            final var bytesInflated = readOrInflateAtMostTo(dst, byteCount);
+            if (bytesInflated > 0L) {
+                return bytesInflated;
+            }
+            if (inflater.finished() || inflater.needsDictionary()) {
+                return -1L;
+            }
+            if (reader.exhausted()) {
+                throw new JayoEOFException("reader exhausted prematurely");
+            }
+        }
+    }
+
+    /**
+     * Consume deflated bytes from the underlying reader, and write any inflated bytes to {@code destination}. Returns
+     * the number of inflated bytes written to {@code destination}. This may return 0L, though it will always consume 1
+     * or more bytes from the underlying reader if it is not exhausted.
+     * <p>
+     * Use this instead of {@link #readAtMostTo} when it is possible to inflate only a part of the data.
+     */
+    long readOrInflateAtMostTo(final @NonNull RealBuffer5 destination, final long byteCount) {
+        assert destination != null;
+
+        if (byteCount == 0L) {
+            return 0L;
+        }
+
+        try {
+            // Prepare the destination that we'll write into.
+            final var tail = destination.writableTail(1);
+            final var toRead = (int) Math.min(byteCount, Segment.SIZE - tail.limit);
+
+            // Prepare the reader that we'll read from.
+            refill();
+
+            // Decompress the inflater's compressed data into the destination.
+            final var bytesInflated = inflater.inflate(tail.data, tail.offset + tail.limit, toRead);
+
+            // Release consumed bytes from the reader.
+            releaseBytesAfterInflate();
+
+            // Track produced bytes in the destination.
+            if (bytesInflated > 0) {
+                tail.limit += bytesInflated;
+                destination.byteSize += bytesInflated;
+                return bytesInflated;
+            }
+
+            // We allocated a tail segment, but didn't end up needing it. Recycle!
+            if (tail.pos == tail.limit) {
+                destination.head = tail.pop();
+                SegmentPool.recycle(tail);
+            }
+
+            return 0L;
+        } catch (DataFormatException e) {
+            throw new JayoException(new IOException(e));
+        }
+    }
+
+    /**
+     * Refills the inflater with compressed data if it needs input. (And only if it needs input). Returns true if the
+     * inflater required input but the reader was exhausted.
+     */
+    private boolean refill() {
+        if (!inflater.needsInput()) {
+            return false;
+        }
+
+        // If there are no further bytes in the reader, we cannot refill.
+        if (reader.exhausted()) {
+            return true;
+        }
+
+        // Assign buffer bytes to the inflater.
+        final var head = reader.buffer.head;
+        assert head != null;
+        bufferBytesHeldByInflater = head.limit - head.pos;
+        inflater.setInput(head.data, head.offset + head.pos, bufferBytesHeldByInflater);
+        return false;
+    }
+
+    /**
+     * When the inflater has processed compressed data, remove it from the buffer.
+     */
+    private void releaseBytesAfterInflate() {
+        if (bufferBytesHeldByInflater == 0) {
+            return;
+        }
+        final var toRelease = bufferBytesHeldByInflater - inflater.getRemaining();
+        bufferBytesHeldByInflater -= toRelease;
+        reader.skip(toRelease);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        inflater.end();
+        closed = true;
+        reader.close();
+    }
+
+    @Override
+    public String toString() {
+        return "inflate(" + reader + ")";
+    }
+}
@@ -69,7 +69,7 @@ public final class InputStreamRawReader5 implements RawReader {
         final var toRead = (int) Math.min(byteCount, Segment.SIZE - dstTail.limit);
         final int read;
         try {
-            read = in.read(dstTail.data, dstTail.limit, toRead);
+            read = in.read(dstTail.data, dstTail.offset + dstTail.limit, toRead);
         } catch (IOException e) {
             throw JayoException.buildJayoException(e);
         }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ *
+ * Forked from Okio (https://github.com/square/okio), original copyright is below
+ *
+ * Copyright (C) 2013 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jayo.playground.core.impl5;
+
+import jayo.playground.core.Buffer;
+import jayo.playground.core.JayoException;
+import jayo.playground.core.RawWriter;
+import org.jspecify.annotations.NonNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+import static java.lang.System.Logger.Level.TRACE;
+import static jayo.playground.core.impl5.Utils.checkOffsetAndCount;
+
+public final class OutputStreamRawWriter5 implements RawWriter {
+    private static final System.Logger LOGGER = System.getLogger("jayo.OutputStreamRawWriter");
+
+    private final @NonNull OutputStream out;
+
+    public OutputStreamRawWriter5(final @NonNull OutputStream out) {
+        this.out = Objects.requireNonNull(out);
+    }
+
+    /**
+     * Writes {@code byteCount} bytes to the OutputStream, one segment at a time. Each segment's data is directly written
+     * from its byte array, and each fully written segment is recycled immediately.
+     */
+    @Override
+    public void write(final @NonNull Buffer source, final long byteCount) {
+        Objects.requireNonNull(source);
+        checkOffsetAndCount(source.bytesAvailable(), 0L, byteCount);
+        final var src = (RealBuffer5) source;
+
+        if (LOGGER.isLoggable(TRACE)) {
+            LOGGER.log(TRACE, "OutputStreamRawWriter: Start writing {0} bytes from Buffer#{1} to the " +
+                            "OutputStream{2}",
+                    byteCount, src, System.lineSeparator());
+        }
+
+        var remaining = byteCount;
+        while (remaining > 0L) {
+            final var head = src.head;
+            assert head != null;
+            final var toWrite = (int) Math.min(remaining, head.limit - head.pos);
+            try {
+                out.write(head.data, head.offset + head.pos, toWrite);
+            } catch (IOException e) {
+                throw JayoException.buildJayoException(e);
+            }
+            src.skipInternal(toWrite);
+            remaining -= toWrite;
+        }
+
+        if (LOGGER.isLoggable(TRACE)) {
+            LOGGER.log(TRACE, "OutputStreamRawWriter: Finished writing {0} bytes from Buffer#{1} to the " +
+                            "OutputStream{2}",
+                    byteCount, src, System.lineSeparator());
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw JayoException.buildJayoException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw JayoException.buildJayoException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "writer(" + out + ")";
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl5;
+
+import jayo.playground.core.Buffer;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The {@link Buffer.ByteBufferViews} of {@link RealBuffer5}. It holds a {@linkplain Segment#sharedCopy() shared copy}
+ * of each viewed segment, that keeps the segment out of the pool until this is closed.
+ */
+final class RealByteBufferViews5 extends Buffer.ByteBufferViews {
+    private @NonNull Segment @Nullable [] segmentCopies;
+
+    RealByteBufferViews5(final @NonNull ByteBuffer @NonNull [] byteBuffers,
+                         final @NonNull Segment @NonNull [] segmentCopies) {
+        super(byteBuffers);
+        assert segmentCopies != null;
+        this.segmentCopies = segmentCopies;
+    }
+
+    @Override
+    public void close() {
+        final var copies = segmentCopies;
+        if (copies == null) {
+            return;
+        }
+        segmentCopies = null;
+        // the last one of a segment and its shared copies to be recycled returns to the pool
+        for (final var copy : copies) {
+            SegmentPool.recycle(copy);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ *
+ * Forked from Okio (https://github.com/square/okio), original copyright is below
+ *
+ * Copyright (C) 2013 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jayo.playground.core.impl5;
+
+import jayo.playground.core.ByteString;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+
+import static jayo.playground.core.impl5.Utils.HEX_DIGIT_CHARS;
+import static jayo.playground.core.impl5.Utils.checkOffsetAndCount;
+
+/**
+ * A {@link ByteString} backed by a single byte array, that must never be modified once this byte string is created.
+ */
+public final class RealByteString implements ByteString {
+    static final @NonNull RealByteString EMPTY = new RealByteString(new byte[0]);
+
+    /**
+     * The number of bytes written in hexadecimal by {@link #toString(ByteString)}.
+     */
+    private static final int TO_STRING_MAX_BYTES = 64;
+
+    final byte @NonNull [] data;
+    /**
+     * Lazily computed, 0 if not computed yet.
+     */
+    private int hashCode = 0;
+    private @Nullable String utf8;
+
+    public RealByteString(final byte @NonNull [] data) {
+        assert data != null;
+        this.data = data;
+    }
+
+    public RealByteString(final byte @NonNull [] data, final @NonNull String utf8) {
+        this(data);
+        assert utf8 != null;
+        this.utf8 = utf8;
+    }
+
+    @Override
+    public int byteSize() {
+        return data.length;
+    }
+
+    @Override
+    public byte getByte(final int index) {
+        checkOffsetAndCount(data.length, index, 1L);
+        return data[index];
+    }
+
+    @Override
+    public byte @NonNull [] toByteArray() {
+        return data.clone();
+    }
+
+    @Override
+    public @NonNull String decodeToUtf8() {
+        var result = utf8;
+        if (result == null) {
+            // races are harmless, they compute the same string
+            result = new String(data, StandardCharsets.UTF_8);
+            utf8 = result;
+        }
+        return result;
+    }
+
+    @Override
+    public @NonNull String hex() {
+        final var result = new char[data.length * 2];
+        var c = 0;
+        for (final var b : data) {
+            result[c++] = HEX_DIGIT_CHARS[b >> 4 & 0xf];
+            result[c++] = HEX_DIGIT_CHARS[b & 0xf];
+        }
+        return new String(result);
+    }
+
+    @Override
+    public @NonNull String base64() {
+        return Base64.getEncoder().encodeToString(data);
+    }
+
+    @Override
+    public boolean rangeEquals(final int offset,
+                               final @NonNull ByteString other,
+                               final int otherOffset,
+                               final int byteCount) {
+        Objects.requireNonNull(other);
+        return other.rangeEquals(otherOffset, data, offset, byteCount);
+    }
+
+    @Override
+    public boolean rangeEquals(final int offset,
+                               final byte @NonNull [] other,
+                               final int otherOffset,
+                               final int byteCount) {
+        Objects.requireNonNull(other);
+        return offset >= 0 && byteCount >= 0 && offset <= data.length - byteCount &&
+                otherOffset >= 0 && otherOffset <= other.length - byteCount &&
+                Arrays.equals(data, offset, offset + byteCount, other, otherOffset, otherOffset + byteCount);
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (other instanceof RealByteString _other) {
+            return Arrays.equals(data, _other.data);
+        }
+        return other instanceof ByteString _other &&
+                _other.byteSize() == data.length &&
+                _other.rangeEquals(0, data, 0, data.length);
+    }
+
+    @Override
+    public int hashCode() {
+        final var result = hashCode;
+        if (result != 0) {
+            return result;
+        }
+        // same as Arrays.hashCode(byte[]), so it does not depend on the byte string implementation
+        hashCode = Arrays.hashCode(data);
+        return hashCode;
+    }
+
+    @Override
+    public @NonNull String toString() {
+        return toString(this);
+    }
+
+    /**
+     * @return the bytes of {@code byteString}, without copying them if it is a {@link RealByteString}. The result must
+     * not be modified.
+     */
+    static byte @NonNull [] internalArray(final @NonNull ByteString byteString) {
+        assert byteString != null;
+        return (byteString instanceof RealByteString realByteString)
+                ? realByteString.data
+                : byteString.toByteArray();
+    }
+
+    /**
+     * @return a string with the size of {@code byteString} and its first bytes in hexadecimal.
+     */
+    static @NonNull String toString(final @NonNull ByteString byteString) {
+        assert byteString != null;
+
+        final var byteSize = byteString.byteSize();
+        if (byteSize == 0) {
+            return "ByteString(size=0)";
+        }
+        final var hexByteCount = Math.min(byteSize, TO_STRING_MAX_BYTES);
+        final var hex = new StringBuilder(hexByteCount * 2);
+        for (var i = 0; i < hexByteCount; i++) {
+            final var b = byteString.getByte(i);
+            hex.append(HEX_DIGIT_CHARS[b >> 4 & 0xf]).append(HEX_DIGIT_CHARS[b & 0xf]);
+        }
+        return "ByteString(size=" + byteSize + " hex=" + hex + ((byteSize > TO_STRING_MAX_BYTES) ? "…)" : ")");
+    }
+}
@@ -23,12 +23,13 @@ package jayo.playground.core.impl5;
 
 import jayo.playground.core.*;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 import java.nio.charset.Charset;
 import java.util.Objects;
 
 public final class RealReader5 implements Reader {
-    private final @NonNull RawReader reader;
+    final @NonNull RawReader reader;
     final @NonNull RealBuffer5 buffer = new RealBuffer5();
     private boolean closed = false;
 
@@ -85,6 +86,14 @@ public final class RealReader5 implements Reader {
         return buffer.readString(byteCount, charset);
     }
 
+    @Override
+    public void readTo(final byte @NonNull [] destination, final int offset, final int byteCount) {
+        Objects.requireNonNull(destination);
+        Objects.checkFromIndexSize(offset, byteCount, destination.length);
+        require(byteCount);
+        buffer.readTo(destination, offset, byteCount);
+    }
+
     @Override
     public long readHexadecimalUnsignedLong() {
         require(1L);
@@ -109,6 +118,184 @@ public final class RealReader5 implements Reader {
         return buffer.readHexadecimalUnsignedLong();
     }
 
+    @Override
+    public byte readByte() {
+        require(1L);
+        return buffer.readByte();
+    }
+
+    @Override
+    public short readShort() {
+        require(2L);
+        return buffer.readShort();
+    }
+
+    @Override
+    public int readInt() {
+        require(4L);
+        return buffer.readInt();
+    }
+
+    @Override
+    public long readLong() {
+        require(8L);
+        return buffer.readLong();
+    }
+
+    @Override
+    public long readDecimalLong() {
+        require(1L);
+
+        var pos = 0L;
+        while (request(pos + 1)) {
+            final var b = buffer.getByte(pos);
+            if ((b < (byte) ((int) '0') || b > (byte) ((int) '9')) && (pos != 0L || b != (byte) ((int) '-'))) {
+                // Non-digit, or non-leading negative sign.
+                if (pos == 0) {
+                    throw new NumberFormatException(
+                            "Expected a digit or '-' but was 0x" + Integer.toString(b, 16));
+                }
+                break;
+            }
+            pos++;
+        }
+
+        return buffer.readDecimalLong();
+    }
+
+    @Override
+    public long indexOf(final byte b, final long startIndex, final long endIndex) {
+        if (startIndex < 0L || endIndex < startIndex) {
+            throw new IllegalArgumentException("startIndex=" + startIndex + " endIndex=" + endIndex);
+        }
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+
+        var _startIndex = startIndex;
+        while (_startIndex < endIndex) {
+            final var result = buffer.indexOf(b, _startIndex, endIndex);
+            if (result != -1L) {
+                return result;
+            }
+
+            // The byte wasn't in the buffer. Give up if we've already reached our target size or if the underlying
+            // reader is exhausted.
+            final var lastBufferSize = buffer.byteSize;
+            if (lastBufferSize >= endIndex || reader.readAtMostTo(buffer, Segment.SIZE) == -1L) {
+                return -1L;
+            }
+
+            // Continue the search from where we left off.
+            _startIndex = Math.max(_startIndex, lastBufferSize);
+        }
+        return -1L;
+    }
+
+    @Override
+    public long indexOf(final byte @NonNull [] bytes, final long startIndex) {
+        Objects.requireNonNull(bytes);
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("bytes is empty");
+        }
+        if (startIndex < 0L) {
+            throw new IllegalArgumentException("startIndex < 0: " + startIndex);
+        }
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+
+        var _startIndex = startIndex;
+        while (true) {
+            final var result = buffer.indexOf(bytes, _startIndex);
+            if (result != -1L) {
+                return result;
+            }
+
+            final var lastBufferSize = buffer.byteSize;
+            if (reader.readAtMostTo(buffer, Segment.SIZE) == -1L) {
+                return -1L;
+            }
+
+            // Keep searching, picking up from where we left off.
+            _startIndex = Math.max(_startIndex, lastBufferSize - bytes.length + 1);
+        }
+    }
+
+    @Override
+    public long indexOf(final @NonNull ByteString bytes, final long startIndex) {
+        Objects.requireNonNull(bytes);
+        return indexOf(RealByteString.internalArray(bytes), startIndex);
+    }
+
+    @Override
+    public long indexOfElement(final byte @NonNull [] targetBytes, final long startIndex) {
+        Objects.requireNonNull(targetBytes);
+        if (startIndex < 0L) {
+            throw new IllegalArgumentException("startIndex < 0: " + startIndex);
+        }
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+
+        var _startIndex = startIndex;
+        while (true) {
+            final var result = buffer.indexOfElement(targetBytes, _startIndex);
+            if (result != -1L) {
+                return result;
+            }
+
+            final var lastBufferSize = buffer.byteSize;
+            if (reader.readAtMostTo(buffer, Segment.SIZE) == -1L) {
+                return -1L;
+            }
+
+            // Keep searching, picking up from where we left off.
+            _startIndex = Math.max(_startIndex, lastBufferSize);
+        }
+    }
+
+    @Override
+    public boolean rangeEquals(final long offset, final byte @NonNull [] bytes) {
+        Objects.requireNonNull(bytes);
+        if (offset < 0L) {
+            return false;
+        }
+        return request(offset + bytes.length) && buffer.rangeEquals(offset, bytes);
+    }
+
+    @Override
+    public @Nullable String readLine() {
+        final var newline = indexOf((byte) ((int) '\n'));
+
+        if (newline != -1L) {
+            return buffer.readLine(newline);
+        }
+        if (buffer.byteSize != 0L) {
+            return readString(buffer.byteSize);
+        }
+        return null;
+    }
+
+    @Override
+    public @NonNull String readLineStrict(final long limit) {
+        if (limit < 0L) {
+            throw new IllegalArgumentException("limit < 0: " + limit);
+        }
+        final var scanLength = (limit == Long.MAX_VALUE) ? Long.MAX_VALUE : limit + 1L;
+        final var newline = indexOf((byte) ((int) '\n'), 0L, scanLength);
+        if (newline != -1L) {
+            return buffer.readLine(newline);
+        }
+        if (scanLength < Long.MAX_VALUE &&
+                request(scanLength) && buffer.getByte(scanLength - 1) == (byte) ((int) '\r') &&
+                request(scanLength + 1) && buffer.getByte(scanLength) == (byte) ((int) '\n')) {
+            // The line was 'limit' UTF-8 bytes followed by \r\n.
+            return buffer.readLine(scanLength);
+        }
+        throw buffer.lineNotFound(limit);
+    }
+
     @Override
     public long bytesAvailable() {
         if (closed) {
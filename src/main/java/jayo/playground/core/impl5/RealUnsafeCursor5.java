@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ *
+ * Forked from Okio (https://github.com/square/okio), original copyright is below
+ *
+ * Copyright (C) 2013 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jayo.playground.core.impl5;
+
+import jayo.playground.core.Buffer;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The {@link Buffer.UnsafeCursor} of {@link RealBuffer5}. {@link #start} and {@link #end} are absolute indexes in
+ * {@link #data}, that may be a slab shared by several segments, so they include the segment's {@link Segment#offset}.
+ */
+public final class RealUnsafeCursor5 extends Buffer.UnsafeCursor {
+    private @Nullable Segment segment = null;
+
+    @Override
+    public int next() {
+        final var buffer = attachedBuffer();
+        if (offset == buffer.byteSize) {
+            throw new IllegalStateException("no more bytes");
+        }
+        return (offset == -1L) ? seek(0L) : seek(offset + (end - start));
+    }
+
+    @Override
+    public int seek(final long offset) {
+        final var buffer = attachedBuffer();
+        if (offset < -1L || offset > buffer.byteSize) {
+            throw new IndexOutOfBoundsException("offset=" + offset + " > size=" + buffer.byteSize);
+        }
+
+        if (offset == -1L || offset == buffer.byteSize) {
+            detachSegment(offset);
+            return -1;
+        }
+
+        // Navigate to the segment that contains `offset`. Start from our current segment if possible.
+        var min = 0L;
+        var max = buffer.byteSize;
+        var head = buffer.head;
+        var tail = buffer.head;
+        final var current = this.segment;
+        if (current != null) {
+            final var segmentOffset = this.offset - (start - (current.offset + current.pos));
+            if (segmentOffset > offset) {
+                // Set the cursor segment to be the 'end'
+                max = segmentOffset;
+                tail = current;
+            } else {
+                // Set the cursor segment to be the 'beginning'
+                min = segmentOffset;
+                head = current;
+            }
+        }
+
+        Segment next;
+        long nextOffset;
+        if (max - offset > offset - min) {
+            // Start at the 'beginning' and search forwards
+            next = head;
+            nextOffset = min;
+            assert next != null;
+            while (offset >= nextOffset + (next.limit - next.pos)) {
+                nextOffset += next.limit - next.pos;
+                next = next.next;
+                assert next != null;
+            }
+        } else {
+            // Start at the 'end' and search backwards
+            next = tail;
+            nextOffset = max;
+            while (nextOffset > offset) {
+                assert next != null;
+                next = next.prev;
+                assert next != null;
+                nextOffset -= next.limit - next.pos;
+            }
+        }
+        assert next != null;
+
+        // If we're going to write and our segment is shared, swap it for a private copy.
+        if (readWrite && next.isShared()) {
+            final var unsharedNext = SegmentPool.take();
+            final var byteCount = next.limit - next.pos;
+            System.arraycopy(next.data, next.offset + next.pos, unsharedNext.data, unsharedNext.offset + next.pos,
+                    byteCount);
+            unsharedNext.pos = next.pos;
+            unsharedNext.limit = next.limit;
+            next.push(unsharedNext);
+            if (buffer.head == next) {
+                buffer.head = unsharedNext;
+            }
+            next.pop();
+            SegmentPool.recycle(next);
+            next = unsharedNext;
+        }
+
+        // Update this cursor to the requested offset within the found segment.
+        this.segment = next;
+        this.offset = offset;
+        this.data = next.data;
+        this.start = next.offset + next.pos + (int) (offset - nextOffset);
+        this.end = next.offset + next.limit;
+        return end - start;
+    }
+
+    @Override
+    public long resizeBuffer(final long newSize) {
+        final var buffer = attachedBuffer();
+        if (!readWrite) {
+            throw new IllegalStateException("resizeBuffer() is only permitted for read/write buffers");
+        }
+
+        final var oldSize = buffer.byteSize;
+        if (newSize <= oldSize) {
+            if (newSize < 0L) {
+                throw new IllegalArgumentException("newSize < 0: " + newSize);
+            }
+            // Shrink the buffer by either shrinking segments or removing them.
+            var bytesToSubtract = oldSize - newSize;
+            while (bytesToSubtract > 0L) {
+                assert buffer.head != null;
+                final var tail = buffer.head.prev;
+                assert tail != null;
+                final var tailSize = tail.limit - tail.pos;
+                if (tailSize <= bytesToSubtract) {
+                    buffer.head = tail.pop();
+                    SegmentPool.recycle(tail);
+                    bytesToSubtract -= tailSize;
+                } else {
+                    tail.limit -= (int) bytesToSubtract;
+                    break;
+                }
+            }
+            // Seek to the end.
+            detachSegment(newSize);
+        } else {
+            // Enlarge the buffer by either enlarging segments or adding them.
+            var needsToSeek = true;
+            var bytesToAdd = newSize - oldSize;
+            while (bytesToAdd > 0L) {
+                final var tail = buffer.writableTail(1);
+                final var segmentBytesToAdd = (int) Math.min(bytesToAdd, Segment.SIZE - tail.limit);
+                tail.limit += segmentBytesToAdd;
+                bytesToAdd -= segmentBytesToAdd;
+
+                // If this is the first segment we're adding, seek to it.
+                if (needsToSeek) {
+                    this.segment = tail;
+                    this.offset = oldSize;
+                    this.data = tail.data;
+                    this.start = tail.offset + tail.limit - segmentBytesToAdd;
+                    this.end = tail.offset + tail.limit;
+                    needsToSeek = false;
+                }
+            }
+        }
+
+        buffer.byteSize = newSize;
+        return oldSize;
+    }
+
+    @Override
+    public long expandBuffer(final int minByteCount) {
+        if (minByteCount <= 0) {
+            throw new IllegalArgumentException("minByteCount <= 0: " + minByteCount);
+        }
+        if (minByteCount > Segment.SIZE) {
+            throw new IllegalArgumentException("minByteCount > Segment.SIZE: " + minByteCount);
+        }
+        final var buffer = attachedBuffer();
+        if (!readWrite) {
+            throw new IllegalStateException("expandBuffer() is only permitted for read/write buffers");
+        }
+
+        final var oldSize = buffer.byteSize;
+        final var tail = buffer.writableTail(minByteCount);
+        final var result = Segment.SIZE - tail.limit;
+        tail.limit = Segment.SIZE;
+        buffer.byteSize = oldSize + result;
+
+        // Seek to the old size.
+        this.segment = tail;
+        this.offset = oldSize;
+        this.data = tail.data;
+        this.start = tail.offset + Segment.SIZE - result;
+        this.end = tail.offset + Segment.SIZE;
+
+        return result;
+    }
+
+    @Override
+    public void close() {
+        if (buffer == null) {
+            throw new IllegalStateException("not attached to a buffer");
+        }
+        buffer = null;
+        readWrite = false;
+        detachSegment(-1L);
+    }
+
+    /**
+     * Attaches this cursor to {@code buffer}.
+     */
+    void attach(final @NonNull RealBuffer5 buffer, final boolean readWrite) {
+        assert buffer != null;
+
+        if (this.buffer != null) {
+            throw new IllegalStateException("already attached to a buffer");
+        }
+        this.buffer = buffer;
+        this.readWrite = readWrite;
+    }
+
+    private @NonNull RealBuffer5 attachedBuffer() {
+        if (buffer == null) {
+            throw new IllegalStateException("not attached to a buffer");
+        }
+        return (RealBuffer5) buffer;
+    }
+
+    private void detachSegment(final long offset) {
+        this.segment = null;
+        this.offset = offset;
+        this.data = null;
+        this.start = -1;
+        this.end = -1;
+    }
+}
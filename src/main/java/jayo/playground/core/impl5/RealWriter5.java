@@ -0,0 +1,535 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ *
+ * Forked from Okio (https://github.com/square/okio), original copyright is below
+ *
+ * Copyright (C) 2013 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jayo.playground.core.impl5;
+
+import jayo.playground.core.*;
+import jayo.playground.scheduling.TaskRunner;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.System.Logger.Level.TRACE;
+
+public sealed class RealWriter5 implements Writer permits RealWriter5.Async {
+    private static final System.Logger LOGGER = System.getLogger("jayo.RealWriter");
+
+    final @NonNull RawWriter writer;
+    final @NonNull RealBuffer5 buffer = new RealBuffer5();
+    private boolean closed = false;
+
+    public RealWriter5(final @NonNull RawWriter writer) {
+        assert writer != null;
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(final @NonNull Buffer source, final long byteCount) {
+        Objects.requireNonNull(source);
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        buffer.write(source, byteCount);
+        emitCompleteSegments();
+    }
+
+    @Override
+    public @NonNull Writer write(final @NonNull String string) {
+        Objects.requireNonNull(string);
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        buffer.write(string);
+        return emitCompleteSegments();
+    }
+
+    @Override
+    public @NonNull Writer write(final @NonNull ByteString byteString) {
+        Objects.requireNonNull(byteString);
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        buffer.write(byteString);
+        return emitCompleteSegments();
+    }
+
+    @Override
+    public @NonNull Writer write(final byte @NonNull [] source) {
+        Objects.requireNonNull(source);
+        return write(source, 0, source.length);
+    }
+
+    @Override
+    public @NonNull Writer write(final byte @NonNull [] source, final int offset, final int byteCount) {
+        Objects.requireNonNull(source);
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        buffer.write(source, offset, byteCount);
+        return emitCompleteSegments();
+    }
+
+    @Override
+    public @NonNull Writer writeByte(final byte b) {
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        buffer.writeByte(b);
+        return emitCompleteSegments();
+    }
+
+    @Override
+    public @NonNull Writer writeShort(final short s) {
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        buffer.writeShort(s);
+        return emitCompleteSegments();
+    }
+
+    @Override
+    public @NonNull Writer writeInt(final int i) {
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        buffer.writeInt(i);
+        return emitCompleteSegments();
+    }
+
+    @Override
+    public @NonNull Writer writeLong(final long l) {
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        buffer.writeLong(l);
+        return emitCompleteSegments();
+    }
+
+    @Override
+    public @NonNull Writer writeDecimalLong(final long l) {
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        buffer.writeDecimalLong(l);
+        return emitCompleteSegments();
+    }
+
+    @Override
+    public @NonNull Writer writeHexadecimalUnsignedLong(final long l) {
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        buffer.writeHexadecimalUnsignedLong(l);
+        return emitCompleteSegments();
+    }
+
+    @Override
+    public long transferFrom(final @NonNull RawReader source) {
+        Objects.requireNonNull(source);
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+
+        var totalBytesRead = 0L;
+        if (writer instanceof WritableByteChannelRawWriter5 channelWriter) {
+            totalBytesRead = transferFromChannel(source, channelWriter.out);
+        }
+
+        // generic path : bytes are read into our buffer, then complete segments are written downstream
+        while (true) {
+            final var readCount = source.readAtMostTo(buffer, Segment.SIZE);
+            if (readCount == -1L) {
+                break;
+            }
+            totalBytesRead += readCount;
+            emitCompleteSegments();
+        }
+        return totalBytesRead;
+    }
+
+    /**
+     * Zero-copy path of {@link #transferFrom(RawReader)} : when {@code source} reads from a channel, and the source or
+     * the destination channel is a {@link FileChannel}, bytes are transferred by {@link FileChannel#transferTo} or
+     * {@link FileChannel#transferFrom}, that may use {@code sendfile} or {@code splice} so data never reaches the Java
+     * heap.
+     * <p>
+     * Bytes already buffered by our buffer or by the source reader are written first, to preserve ordering. When the
+     * channel transfer stops making progress, the caller falls back to the generic copying path that reliably
+     * detects the end of the source.
+     *
+     * @return the number of bytes transferred.
+     */
+    private long transferFromChannel(final @NonNull RawReader source, final @NonNull WritableByteChannel out) {
+        assert source != null;
+        assert out != null;
+
+        final ReadableByteChannel in;
+        var totalBytesRead = 0L;
+        if (source instanceof ReadableByteChannelRawReader5 channelReader) {
+            in = channelReader.in;
+        } else if (source instanceof RealReader5 realReader
+                && realReader.reader instanceof ReadableByteChannelRawReader5 channelReader) {
+            in = channelReader.in;
+            // bytes already buffered by the source reader are moved to our buffer, also checks if it is closed
+            totalBytesRead = realReader.bytesAvailable();
+            buffer.write(realReader.buffer, totalBytesRead);
+        } else {
+            return 0L;
+        }
+        if (!(in instanceof FileChannel) && !(out instanceof FileChannel)) {
+            return totalBytesRead;
+        }
+
+        final var byteCount = buffer.bytesAvailable();
+        if (byteCount > 0L) {
+            writeDownstream(byteCount);
+        }
+        awaitDownstreamWrites();
+
+        if (LOGGER.isLoggable(TRACE)) {
+            LOGGER.log(TRACE, "RealWriter: Start zero-copy transfer from {0} to {1}{2}",
+                    in, out, System.lineSeparator());
+        }
+
+        try {
+            if (in instanceof FileChannel fileIn) {
+                // transferTo does not modify the position of the source file channel
+                var position = fileIn.position();
+                long transferred;
+                while ((transferred = fileIn.transferTo(position, Long.MAX_VALUE - position, out)) > 0L) {
+                    position += transferred;
+                    totalBytesRead += transferred;
+                }
+                fileIn.position(position);
+            } else {
+                // transferFrom does not modify the position of the destination file channel
+                final var fileOut = (FileChannel) out;
+                var position = fileOut.position();
+                long transferred;
+                while ((transferred = fileOut.transferFrom(in, position, Long.MAX_VALUE - position)) > 0L) {
+                    position += transferred;
+                    totalBytesRead += transferred;
+                }
+                fileOut.position(position);
+            }
+        } catch (IOException e) {
+            throw JayoException.buildJayoException(e);
+        }
+
+        if (LOGGER.isLoggable(TRACE)) {
+            LOGGER.log(TRACE, "RealWriter: Finished zero-copy transfer of {0} bytes from {1} to {2}{3}",
+                    totalBytesRead, in, out, System.lineSeparator());
+        }
+        return totalBytesRead;
+    }
+
+    @Override
+    public @NonNull Writer emit() {
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        final var byteCount = buffer.bytesAvailable();
+        if (byteCount > 0L) {
+            writeDownstream(byteCount);
+        }
+        return this;
+    }
+
+    /**
+     * Only complete segments are written to the underlying writer, the writable tail segment stays in our buffer so
+     * that next small writes can keep filling it.
+     */
+    @NonNull
+    Writer emitCompleteSegments() {
+        final var byteCount = buffer.completeSegmentByteCount();
+        if (byteCount > 0L) {
+            writeDownstream(byteCount);
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        if (closed) {
+            throw new JayoClosedResourceException();
+        }
+        final var byteCount = buffer.bytesAvailable();
+        if (byteCount > 0L) {
+            writeDownstream(byteCount);
+        }
+        flushDownstream();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        // Emit buffered data to the underlying writer. If this fails, we still need to close the writer; otherwise we
+        // risk leaking resources.
+        Throwable thrown = null;
+        try {
+            final var byteCount = buffer.bytesAvailable();
+            if (byteCount > 0L) {
+                writeDownstream(byteCount);
+            }
+        } catch (Throwable t) {
+            thrown = t;
+        }
+
+        try {
+            closeDownstream();
+        } catch (Throwable t) {
+            if (thrown == null) {
+                thrown = t;
+            }
+        }
+
+        closed = true;
+        buffer.clear();
+
+        if (thrown != null) {
+            if (thrown instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (thrown instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(thrown);
+        }
+    }
+
+    /**
+     * Writes {@code byteCount} bytes from the head of our buffer to the underlying writer.
+     */
+    void writeDownstream(final long byteCount) {
+        writer.write(buffer, byteCount);
+    }
+
+    /**
+     * Blocks until all bytes passed to {@link #writeDownstream(long)} were written to the underlying writer.
+     */
+    void awaitDownstreamWrites() {
+        // writes are synchronous
+    }
+
+    void flushDownstream() {
+        writer.flush();
+    }
+
+    void closeDownstream() {
+        writer.close();
+    }
+
+    @Override
+    public String toString() {
+        return "buffered(" + writer + ")";
+    }
+
+    /**
+     * A write-behind writer. Writes to the underlying writer are seamlessly processed <b>asynchronously</b> by a drain
+     * task executed by the {@link TaskRunner}, so write operations only move segments to a pending buffer and return.
+     * <p>
+     * When the byte count of the pending buffer and the bytes being written by the drain task reaches the high-water
+     * mark, write operations block until the drain task has caught up.
+     * <p>
+     * If the drain task fails, its exception is thrown by all subsequent write, flush and close operations.
+     */
+    public static final class Async extends RealWriter5 {
+        private static final System.Logger LOGGER = System.getLogger("jayo.AsyncRealWriter");
+
+        /**
+         * The default maximum number of bytes that can wait to be written to the underlying writer. ~256 KiB.
+         */
+        public static final long DEFAULT_HIGH_WATER_MARK = 16L * Segment.SIZE;
+
+        private final @NonNull TaskRunner taskRunner;
+        private final long highWaterMark;
+
+        private final Lock lock = new ReentrantLock();
+        private final Condition drained = lock.newCondition();
+
+        // non-volatile because always used inside the lock
+        private final @NonNull RealBuffer5 pending = new RealBuffer5();
+        private long inFlightByteCount = 0L;
+        private boolean drainerRunning = false;
+
+        /**
+         * The failure of the drain task. It is sticky: once set, every later write, flush or close throws it.
+         */
+        private volatile @Nullable RuntimeException exception = null;
+
+        private final @NonNull Runnable drainer;
+
+        public Async(final @NonNull RawWriter writer,
+                     final @NonNull TaskRunner taskRunner,
+                     final long highWaterMark) {
+            super(writer);
+            assert taskRunner != null;
+            if (highWaterMark <= 0L) {
+                throw new IllegalArgumentException("highWaterMark <= 0: " + highWaterMark);
+            }
+
+            this.taskRunner = taskRunner;
+            this.highWaterMark = highWaterMark;
+            drainer = () -> {
+                if (LOGGER.isLoggable(TRACE)) {
+                    LOGGER.log(TRACE, "AsyncRealWriter#{0}: Drainer Runnable task: start", hashCode());
+                }
+                // only accessed by the drain task
+                final var toWrite = new RealBuffer5();
+                try {
+                    while (true) {
+                        lock.lock();
+                        try {
+                            // the previous write is done, resume the writing thread if it was paused
+                            inFlightByteCount = 0L;
+                            drained.signalAll();
+                            if (pending.byteSize == 0L) {
+                                drainerRunning = false;
+                                break;
+                            }
+                            inFlightByteCount = pending.byteSize;
+                            toWrite.write(pending, inFlightByteCount);
+                        } finally {
+                            lock.unlock();
+                        }
+
+                        writer.write(toWrite, toWrite.byteSize);
+                    }
+                } catch (Throwable t) {
+                    if (t instanceof RuntimeException runtimeException) {
+                        exception = runtimeException;
+                    } else {
+                        exception = new RuntimeException(t);
+                    }
+                    toWrite.clear();
+                    // end of drain task : we mark it as terminated, and we signal (= resume) the writing thread
+                    lock.lock();
+                    try {
+                        pending.clear();
+                        inFlightByteCount = 0L;
+                        drainerRunning = false;
+                        drained.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+                if (LOGGER.isLoggable(TRACE)) {
+                    LOGGER.log(TRACE, "AsyncRealWriter#{0}: Drainer Runnable task: end", hashCode());
+                }
+            };
+        }
+
+        private void throwIfNeeded() {
+            final var currentException = exception;
+            if (currentException != null) {
+                // keep the exception, the pending bytes were lost so this writer must not be used anymore
+                throw currentException;
+            }
+        }
+
+        /**
+         * Moves {@code byteCount} bytes from the head of our buffer to the pending buffer, then resumes the drain task
+         * if needed. This method blocks while the high-water mark is reached.
+         */
+        @Override
+        void writeDownstream(final long byteCount) {
+            throwIfNeeded();
+            lock.lock();
+            try {
+                while (pending.byteSize + inFlightByteCount >= highWaterMark) {
+                    if (LOGGER.isLoggable(TRACE)) {
+                        LOGGER.log(TRACE, "AsyncRealWriter#{0}: writeDownstream({1}) pausing, high-water mark " +
+                                        "{2} reached{3}",
+                                hashCode(), byteCount, highWaterMark, System.lineSeparator());
+                    }
+                    drained.await();
+                }
+                throwIfNeeded();
+
+                pending.write(buffer, byteCount);
+                // resume drain task if needed
+                if (!drainerRunning) {
+                    drainerRunning = true;
+                    taskRunner.execute(false, drainer);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Retain interrupted status.
+                throw new JayoInterruptedIOException("current thread is interrupted");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        void awaitDownstreamWrites() {
+            awaitDrained();
+        }
+
+        @Override
+        void flushDownstream() {
+            awaitDrained();
+            writer.flush();
+        }
+
+        @Override
+        void closeDownstream() {
+            try {
+                awaitDrained();
+            } finally {
+                writer.close();
+            }
+        }
+
+        /**
+         * Blocks until all pending bytes were written to the underlying writer by the drain task.
+         */
+        private void awaitDrained() {
+            lock.lock();
+            try {
+                while (drainerRunning) {
+                    drained.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Retain interrupted status.
+                throw new JayoInterruptedIOException("current thread is interrupted");
+            } finally {
+                lock.unlock();
+            }
+            throwIfNeeded();
+        }
+
+        @Override
+        public String toString() {
+            return "bufferedAsync(" + writer + ")";
+        }
+    }
+}
@@ -40,10 +40,16 @@ final class Segment {
     private static final int SHARE_MINIMUM = 1024; // todo should it be more now that size is 16 KB ?
 
     /**
-     * The binary data.
+     * The binary data. It may be a slab shared by many segments, each one of them using its own region of
+     * {@link #SIZE} bytes, starting at {@link #offset}.
      */
     final byte @NonNull [] data;
 
+    /**
+     * The start index of this segment's region in {@link #data}. {@link #pos} and {@link #limit} are relative to it.
+     */
+    final int offset;
+
     /**
      * The next byte of application data byte to read in this segment. This field will be exclusively modified and read
      * by the reader.
@@ -84,17 +90,32 @@ final class Segment {
 
     Segment() {
         this.data = new byte[SIZE];
+        this.offset = 0;
+        this.owner = true;
+        this.copyTracker = null;
+    }
+
+    /**
+     * A segment that owns the region of {@link #SIZE} bytes starting at {@code offset} in the {@code slab} array.
+     */
+    Segment(final byte @NonNull [] slab, final int offset) {
+        assert slab != null;
+        assert offset >= 0 && offset + SIZE <= slab.length;
+        this.data = slab;
+        this.offset = offset;
         this.owner = true;
         this.copyTracker = null;
     }
 
     Segment(final byte @NonNull [] data,
+            final int offset,
             final int pos,
             final int limit,
             final @Nullable CopyTracker copyTracker,
             final boolean owner) {
         assert data != null;
         this.data = data;
+        this.offset = offset;
         this.pos = pos;
         this.limit = limit;
         this.copyTracker = copyTracker;
@@ -121,6 +142,7 @@ final class Segment {
         t.addCopy();
         return new Segment(
                 data,
+                offset,
                 pos,
                 limit,
                 t,
@@ -169,12 +191,13 @@ final class Segment {
             if (targetSize + byteCount > SIZE) {
                 throw new IllegalArgumentException("not enough space in writer segment to write " + byteCount + " bytes");
             }
-            System.arraycopy(targetSegment.data, targetSegment.pos, targetSegment.data, 0, targetSize);
+            System.arraycopy(targetSegment.data, targetSegment.offset + targetSegment.pos, targetSegment.data,
+                    targetSegment.offset, targetSize);
             targetSegment.limit = targetSize;
             targetSegment.pos = 0;
         }
 
-        System.arraycopy(data, pos, targetSegment.data, targetSegment.limit, byteCount);
+        System.arraycopy(data, offset + pos, targetSegment.data, targetSegment.offset + targetSegment.limit, byteCount);
         targetSegment.limit += byteCount;
         pos += byteCount;
     }
@@ -199,7 +222,7 @@ final class Segment {
             prefix = sharedCopy();
         } else {
             prefix = SegmentPool.take();
-            System.arraycopy(data, pos, prefix.data, 0, byteCount);
+            System.arraycopy(data, offset + pos, prefix.data, prefix.offset, byteCount);
         }
         prefix.limit = prefix.pos + byteCount;
         pos += byteCount;
@@ -211,7 +234,7 @@ final class Segment {
     public String toString() {
         final var next = this.next;
         final var prev = this.prev;
-        return "Segment#" + hashCode() + " [maxSize=" + data.length + "] {" +
+        return "Segment#" + hashCode() + " [maxSize=" + SIZE + "] {" +
                 System.lineSeparator() +
                 ", pos=" + pos +
                 ", limit=" + limit +
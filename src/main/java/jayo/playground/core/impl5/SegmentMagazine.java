@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl5;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.ref.Cleaner;
+
+import static java.lang.System.Logger.Level.ERROR;
+import static java.lang.System.Logger.Level.INFO;
+
+/**
+ * A small per-thread cache of {@linkplain Segment segments} in front of the shared {@link SegmentPool} buckets, inspired
+ * by jemalloc's thread cache. It serves {@link #take()} and {@link #recycle(Segment)} without any atomic operation, and
+ * exchanges half of its capacity with the shared buckets when it is empty or full.
+ * <p>
+ * The magazine is disabled by default, it is enabled by setting the `jayo.pool.magazine.size` system property to the
+ * number of segments cached per thread. It is only used by platform threads : virtual threads are short-lived and
+ * numerous, so they use the shared buckets directly.
+ * <p>
+ * The segments of a magazine are returned to the shared buckets by a {@link Cleaner} once its thread is terminated and
+ * unreachable.
+ */
+final class SegmentMagazine {
+    private static final System.Logger LOGGER = System.getLogger("jayo.SegmentMagazine");
+
+    private static final int DEFAULT_CAPACITY = 0; // magazines are disabled by default
+
+    private static final int MAX_CAPACITY = 64;
+
+    /**
+     * The number of segments cached per thread, 0 means that magazines are disabled.
+     */
+    static final int CAPACITY;
+
+    static {
+        // SegmentMagazine.CAPACITY System property overriding.
+        String systemCapacity = null;
+        try {
+            systemCapacity = System.getProperty("jayo.pool.magazine.size");
+        } catch (Throwable t) { // whatever happens, recover
+            LOGGER.log(ERROR, "Exception when resolving the provided magazine size, fallback to default = {0}",
+                    DEFAULT_CAPACITY);
+        } finally {
+            var capacity = 0;
+            if (systemCapacity != null && !systemCapacity.isBlank()) {
+                try {
+                    capacity = Integer.parseInt(systemCapacity);
+                } catch (NumberFormatException _unused) {
+                    LOGGER.log(ERROR, "{0} is not a valid size, fallback to default magazine size = {1}",
+                            systemCapacity, DEFAULT_CAPACITY);
+                }
+            }
+            // a magazine exchanges half of its capacity, so it holds at least 2 segments
+            CAPACITY = (capacity > 0) ? Math.clamp(capacity, 2, MAX_CAPACITY) : DEFAULT_CAPACITY;
+            if (CAPACITY > 0) {
+                LOGGER.log(INFO, "Jayo will use thread-local magazines of {0} segments", CAPACITY);
+            }
+        }
+    }
+
+    private static final Cleaner CLEANER = (CAPACITY > 0) ? Cleaner.create() : null;
+
+    private static final ThreadLocal<SegmentMagazine> MAGAZINES = ThreadLocal.withInitial(() -> {
+        final var magazine = new SegmentMagazine();
+        // the drain action must not reference the thread, else it would never become unreachable
+        assert CLEANER != null;
+        CLEANER.register(Thread.currentThread(), magazine::drain);
+        return magazine;
+    });
+
+    private final @Nullable Segment @NonNull [] segments = new Segment[CAPACITY];
+    private int count = 0;
+
+    private SegmentMagazine() {
+    }
+
+    /**
+     * @return the magazine of the current thread, or null if the current thread is a virtual thread.
+     */
+    static @Nullable SegmentMagazine current() {
+        assert CAPACITY > 0;
+        if (Thread.currentThread().isVirtual()) {
+            return null;
+        }
+        return MAGAZINES.get();
+    }
+
+    @NonNull
+    Segment take() {
+        if (count == 0) {
+            // empty magazine, reload half of it from the shared buckets at once
+            recycleChain(SegmentPool.takeChainShared(CAPACITY / 2));
+        }
+
+        final var segment = segments[--count];
+        segments[count] = null;
+        assert segment != null;
+        // cleanup segment to cache.
+        segment.next = null;
+        segment.pos = 0;
+        segment.owner = true;
+        segment.limit = 0;
+        return segment;
+    }
+
+    /**
+     * @return a chain of {@code count} segments, taken from this magazine first and then from the shared buckets.
+     */
+    @NonNull
+    Segment takeChain(final int count) {
+        assert count > 0;
+
+        var remaining = count;
+        Segment chain = null;
+        final var available = this.count;
+        if (remaining > available) {
+            // in slab mode, the shared buckets may recycle segments to this magazine meanwhile
+            chain = SegmentPool.takeChainShared(remaining - available);
+            remaining = available;
+        }
+        while (remaining-- > 0) {
+            final var segment = take();
+            segment.next = chain;
+            chain = segment;
+        }
+        assert chain != null;
+        return chain;
+    }
+
+    void recycle(final @NonNull Segment segment) {
+        assert segment != null;
+
+        if (count == CAPACITY) {
+            // full magazine, return half of it to the shared buckets at once
+            Segment chain = null;
+            while (count > CAPACITY / 2) {
+                final var spilled = segments[--count];
+                segments[count] = null;
+                assert spilled != null;
+                spilled.next = chain;
+                chain = spilled;
+            }
+            assert chain != null;
+            SegmentPool.recycleChainShared(chain);
+        }
+
+        segment.next = null;
+        segments[count++] = segment;
+    }
+
+    /**
+     * Fills this magazine with the head of {@code chain}, the rest of the chain is recycled to the shared buckets.
+     */
+    void recycleChain(final @NonNull Segment chain) {
+        assert chain != null;
+
+        var segment = chain;
+        while (segment != null && count < CAPACITY) {
+            final var next = segment.next;
+            segment.next = null;
+            segments[count++] = segment;
+            segment = next;
+        }
+        if (segment != null) {
+            SegmentPool.recycleChainShared(segment);
+        }
+    }
+
+    /**
+     * @return the number of segments in this magazine.
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * Returns all the segments of this magazine to the shared buckets, called by the {@link Cleaner} when the thread
+     * that owned this magazine is unreachable.
+     */
+    private void drain() {
+        Segment chain = null;
+        while (count > 0) {
+            final var segment = segments[--count];
+            segments[count] = null;
+            assert segment != null;
+            segment.next = chain;
+            chain = segment;
+        }
+        if (chain != null) {
+            SegmentPool.recycleChainShared(chain);
+        }
+    }
+}
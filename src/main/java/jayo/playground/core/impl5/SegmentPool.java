@@ -28,10 +28,16 @@ package jayo.playground.core.impl5;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
+import static java.lang.System.Logger.Level.DEBUG;
 import static java.lang.System.Logger.Level.ERROR;
 import static java.lang.System.Logger.Level.INFO;
 
@@ -42,19 +48,35 @@ import static java.lang.System.Logger.Level.INFO;
  * Every {@link #take()} or {@link #recycle(Segment)} choose one of the buckets depending on a
  * {@link Thread#currentThread()}'s threadId.
  * <p>
+ * A virtual thread is usually short-lived, so its threadId would spread takes and recycles randomly across the
+ * buckets. When the current thread is virtual, its carrier thread's threadId is used instead, so a segment recycled by a
+ * virtual thread is likely to be taken by the next virtual thread mounted on the same carrier. The carrier thread is
+ * obtained from the internal {@code Thread.currentCarrierThread()} method, that requires the
+ * {@code --add-opens java.base/java.lang=ALL-UNNAMED} JVM option. Without it, or if the `jayo.pool.bucketing` system
+ * property is set to {@code threadId}, the virtual thread's threadId is used.
+ * <p>
  * On {@link #take()}, a caller swaps the Thread's corresponding segment cache with the {@link #DOOR} sentinel. If the
  * segment cache was not already locked, the caller pop the first segment from the cache.
  * <p>
  * On {@link #recycle(Segment)}, a caller swaps the head with a new node whose successor is the replaced head.
  * <p>
+ * {@link #takeChain(int)} and {@link #recycleChain(Segment)} move a whole run of segments from or to a bucket with a
+ * single lock or CAS, so clearing a large buffer or writing a large byte array does not pay one atomic operation per
+ * segment.
+ * <p>
  * On conflict, operations are retried until they succeed.
  * <p>
  * This tracks the number of bytes in each queue in its {@code Segment.limit} property. Each element has a limit that's
- * one segment size greater than its successor element. The maximum size of the pool is a product of {@code #MAX_SIZE}
- * and {@code #HASH_BUCKET_COUNT}.
+ * one segment size greater than its successor element. The maximum size of the first-level pool is a product of the
+ * current L1 bucket size and {@code #HASH_BUCKET_COUNT}.
+ * <p>
+ * The L1 bucket size is adaptive : it starts at {@code #MAX_SIZE}, that is kept relatively small to avoid excessive
+ * memory consumption in case of a large {@code #HASH_BUCKET_COUNT}. It doubles, up to {@code #MAX_ADAPTIVE_SIZE},
+ * when many segments had to be allocated because both pool levels were empty during a short period, and it halves back
+ * when the pool is used again, by a {@link #take()} or a recycle to a full bucket, after no segment was allocated for a
+ * long period. All the L1 buckets are then trimmed, the segments exceeding the new L1 bucket size are released to the
+ * GC.
  * <p>
- * {@code #MAX_SIZE} is kept relatively small to avoid excessive memory consumption in case of a large
- * {@code #HASH_BUCKET_COUNT}.
  * For better handling of scenarios with high segments demand, a second-level pool is enabled and can be tuned by
  * setting up a value of `jayo.pool.size.bytes` system property.
  * <p>
@@ -64,6 +86,18 @@ import static java.lang.System.Logger.Level.INFO;
  * {@link #recycle(Segment)}). That second-level pool is used as a backup in case when {@link #take()} or
  * {@link #recycle(Segment)} failed due to an empty or exhausted segments chain in a corresponding first-level bucket
  * (one of {@code #HASH_BUCKET_COUNT}).
+ * <p>
+ * An alternative pool implementation that never spins on the {@link #DOOR} sentinel can be selected by setting the
+ * `jayo.pool.impl` system property to {@code stamped}. Each bucket is then a {@link StampedSegmentStack}, a lock-free
+ * Treiber stack whose head packs a stamp with a slot index.
+ * <p>
+ * An opt-in thread-local {@link SegmentMagazine} can be enabled in front of the shared buckets by setting the
+ * `jayo.pool.magazine.size` system property to the number of segments cached per platform thread.
+ * <p>
+ * When both levels are empty, a new segment is allocated. An opt-in slab mode can be enabled by setting the
+ * `jayo.pool.slab.segments` system property to a value greater than 1 : a single backing array is then allocated for
+ * that many segments, the first one is returned and the other ones are recycled to the pool. Note that the backing array
+ * of a slab stays reachable as long as one of its segments is.
  */
 @SuppressWarnings("unchecked")
 final class SegmentPool {
@@ -74,17 +108,31 @@ final class SegmentPool {
     }
 
     /**
-     * The maximum number of bytes to pool per hash bucket.
+     * The initial and minimum number of bytes to pool per hash bucket.
      */
-    // TODO: Is this a good maximum size?
     static final int MAX_SIZE = 8 * Segment.SIZE; // ~150 KiB.
 
+    /**
+     * The upper bound of the adaptive number of bytes to pool per hash bucket.
+     */
+    static final int MAX_ADAPTIVE_SIZE = 64 * Segment.SIZE; // ~1 MiB.
+
+    /**
+     * The L1 bucket size grows when {@link #GROW_ALLOCATION_THRESHOLD} segments were allocated during this period.
+     */
+    static final long ALLOCATION_WINDOW_NANOS = 100_000_000L; // 100 ms
+
+    /**
+     * The L1 bucket size shrinks when no segment was allocated during this period.
+     */
+    static final long SHRINK_IDLE_NANOS = 10_000_000_000L; // 10 s
+
     /**
      * The number of hash buckets. This number needs to balance keeping the pool small and contention low. We use the
      * number of processors rounded up to the nearest power of two.
      * For example, a machine with 6 cores will have 8 hash buckets.
      */
-    private static final int HASH_BUCKET_COUNT =
+    static final int HASH_BUCKET_COUNT =
             Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
 
     private static final int HASH_BUCKET_COUNT_L2;
@@ -95,10 +143,22 @@ final class SegmentPool {
 
     private static final int SECOND_LEVEL_POOL_BUCKET_SIZE;
 
+    private static final int DEFAULT_SLAB_SEGMENT_COUNT = 1; // slab mode is disabled by default
+
+    /**
+     * The maximum number of segments carved out of a slab, a slab array must be smaller than 2 GiB.
+     */
+    private static final int MAX_SLAB_SEGMENT_COUNT = 1024;
+
+    /**
+     * The number of segments carved out of a single backing array when the pool is empty.
+     */
+    static final int SLAB_SEGMENT_COUNT;
+
     /**
      * A sentinel segment to indicate that the cache is currently being modified.
      */
-    private static final Segment DOOR = new Segment(new byte[0], 0, 0, null, false);
+    private static final Segment DOOR = new Segment(new byte[0], 0, 0, 0, null, false);
 
     /**
      * Hash buckets each contain a singly-linked queue of segments. The index/key is a hash function of thread ID
@@ -110,6 +170,51 @@ final class SegmentPool {
     private static final @NonNull AtomicReference<@Nullable Segment> @NonNull [] HASH_BUCKETS;
     private static final @NonNull AtomicReference<@Nullable Segment> @NonNull [] HASH_BUCKETS_L2;
 
+    /**
+     * The buckets of the stamped pool, that never spins on the {@link #DOOR} sentinel. Null if the `jayo.pool.impl`
+     * system property is not set to {@code stamped}.
+     */
+    private static final @NonNull StampedSegmentStack @Nullable [] STAMPED_BUCKETS;
+    private static final @NonNull StampedSegmentStack @Nullable [] STAMPED_BUCKETS_L2;
+
+    /**
+     * The number of bytes to pool per hash bucket, adapted to the observed allocation pressure.
+     */
+    private static volatile int l1BucketSize = MAX_SIZE;
+
+    static final int GROW_ALLOCATION_THRESHOLD;
+
+    // these are best-effort statistics, racy updates are tolerated
+    private static final AtomicInteger WINDOW_ALLOCATION_COUNT = new AtomicInteger();
+    private static volatile long allocationWindowStart = System.nanoTime();
+    private static volatile long lastResizeOrAllocation = System.nanoTime();
+
+    // metrics, see SegmentPoolMetrics
+    static final LongAdder L1_HITS = new LongAdder();
+    static final LongAdder L2_HITS = new LongAdder();
+    static final LongAdder ALLOCATIONS = new LongAdder();
+    static final LongAdder DROPS = new LongAdder();
+
+    /**
+     * A method handle to the internal {@code Thread.currentCarrierThread()} method, null if carrier thread bucketing is
+     * disabled or not available.
+     */
+    private static final @Nullable MethodHandle CURRENT_CARRIER_THREAD;
+
+    static {
+        MethodHandle currentCarrierThread = null;
+        try {
+            if (!"threadId".equals(System.getProperty("jayo.pool.bucketing"))) {
+                currentCarrierThread = MethodHandles.privateLookupIn(Thread.class, MethodHandles.lookup())
+                        .findStatic(Thread.class, "currentCarrierThread", MethodType.methodType(Thread.class));
+            }
+        } catch (Throwable t) { // whatever happens, recover
+            LOGGER.log(INFO, "Carrier thread bucketing is not available, add the --add-opens " +
+                    "java.base/java.lang=ALL-UNNAMED JVM option to enable it");
+        }
+        CURRENT_CARRIER_THREAD = currentCarrierThread;
+    }
+
     static {
         final var hashBucketCountL2 = HASH_BUCKET_COUNT / 2;
         HASH_BUCKET_COUNT_L2 = (hashBucketCountL2 > 0) ? hashBucketCountL2 : 1;
@@ -137,8 +242,37 @@ final class SegmentPool {
             LOGGER.log(INFO, "Jayo will use second level pool size of = {0} bytes", SECOND_LEVEL_POOL_TOTAL_SIZE);
         }
 
+        // SegmentPool.SLAB_SEGMENT_COUNT System property overriding.
+        String systemSlabSegmentCount = null;
+        try {
+            systemSlabSegmentCount = System.getProperty("jayo.pool.slab.segments");
+        } catch (Throwable t) { // whatever happens, recover
+            LOGGER.log(ERROR,
+                    "Exception when resolving the provided slab segment count, fallback to default = {0}",
+                    DEFAULT_SLAB_SEGMENT_COUNT);
+        } finally {
+            var slabSegmentCount = 0;
+            if (systemSlabSegmentCount != null && !systemSlabSegmentCount.isBlank()) {
+                try {
+                    slabSegmentCount = Integer.parseInt(systemSlabSegmentCount);
+                } catch (NumberFormatException _unused) {
+                    LOGGER.log(ERROR, "{0} is not a valid count, fallback to default slab segment count = {1}",
+                            systemSlabSegmentCount, DEFAULT_SLAB_SEGMENT_COUNT);
+                }
+            }
+            SLAB_SEGMENT_COUNT = (slabSegmentCount > 0)
+                    ? Math.min(slabSegmentCount, MAX_SLAB_SEGMENT_COUNT)
+                    : DEFAULT_SLAB_SEGMENT_COUNT;
+            if (SLAB_SEGMENT_COUNT > 1) {
+                LOGGER.log(INFO, "Jayo will allocate segments by slabs of {0} segments", SLAB_SEGMENT_COUNT);
+            }
+        }
+
         SECOND_LEVEL_POOL_BUCKET_SIZE = Math.max(SECOND_LEVEL_POOL_TOTAL_SIZE / HASH_BUCKET_COUNT_L2, Segment.SIZE);
 
+        // growing is needed when all L1 buckets were drained twice in the allocation window
+        GROW_ALLOCATION_THRESHOLD = 2 * HASH_BUCKET_COUNT * (MAX_SIZE / Segment.SIZE);
+
         HASH_BUCKETS = new AtomicReference[HASH_BUCKET_COUNT];
         // null value implies an empty bucket
         Arrays.setAll(HASH_BUCKETS, _unused -> new AtomicReference<@Nullable Segment>());
@@ -146,10 +280,40 @@ final class SegmentPool {
         HASH_BUCKETS_L2 = new AtomicReference[HASH_BUCKET_COUNT_L2];
         // null value implies an empty bucket
         Arrays.setAll(HASH_BUCKETS_L2, _unused -> new AtomicReference<@Nullable Segment>());
+
+        if ("stamped".equals(System.getProperty("jayo.pool.impl"))) {
+            LOGGER.log(INFO, "Jayo will use the stamped segment pool");
+            STAMPED_BUCKETS = new StampedSegmentStack[HASH_BUCKET_COUNT];
+            Arrays.setAll(STAMPED_BUCKETS, _unused -> new StampedSegmentStack(MAX_ADAPTIVE_SIZE / Segment.SIZE));
+            STAMPED_BUCKETS_L2 = new StampedSegmentStack[HASH_BUCKET_COUNT_L2];
+            final var l2Capacity = Math.min(SECOND_LEVEL_POOL_BUCKET_SIZE / Segment.SIZE, StampedSegmentStack.MAX_CAPACITY);
+            Arrays.setAll(STAMPED_BUCKETS_L2, _unused -> new StampedSegmentStack(l2Capacity));
+        } else {
+            STAMPED_BUCKETS = null;
+            STAMPED_BUCKETS_L2 = null;
+        }
     }
 
     static @NonNull Segment take() {
-        final var firstRef = HASH_BUCKETS[l1BucketId(Thread.currentThread())];
+        if (SegmentMagazine.CAPACITY > 0) {
+            final var magazine = SegmentMagazine.current();
+            if (magazine != null) {
+                return magazine.take();
+            }
+        }
+        return takeShared();
+    }
+
+    /**
+     * Takes a segment from the shared buckets, bypassing the thread-local magazine.
+     */
+    static @NonNull Segment takeShared() {
+        maybeShrink();
+        if (STAMPED_BUCKETS != null) {
+            return takeStamped();
+        }
+
+        final var firstRef = HASH_BUCKETS[l1BucketId(bucketThread())];
 
         while (true) {
             // Hold the door !!!
@@ -168,7 +332,14 @@ final class SegmentPool {
             }
 
             // We acquired the lock and the pool was not empty. Pop the first element and return it.
-            firstRef.set(first.next);
+            var next = first.next;
+            // If the bucket size shrank, release the exceeding segments.
+            final var bucketSize = l1BucketSize;
+            while (next != null && next.limit > bucketSize) {
+                next = next.next;
+                DROPS.increment();
+            }
+            firstRef.set(next);
 
             // cleanup segment to cache.
             first.next = null;
@@ -176,12 +347,13 @@ final class SegmentPool {
             first.owner = true;
             first.limit = 0;
 
+            L1_HITS.increment();
             return first;
         }
     }
 
     private static @NonNull Segment takeL2() {
-        var bucketId = l2BucketId(Thread.currentThread());
+        var bucketId = l2BucketId(bucketThread());
         var attempts = 0;
 
         while (true) {
@@ -206,7 +378,7 @@ final class SegmentPool {
                     continue;
                 }
 
-                return new Segment();
+                return allocate();
             }
 
             // We acquired the lock and the pool was not empty. Pop the first element and return it.
@@ -218,6 +390,7 @@ final class SegmentPool {
             first.owner = true;
             first.limit = 0;
 
+            L2_HITS.increment();
             return first;
         }
     }
@@ -235,7 +408,28 @@ final class SegmentPool {
             return;
         }
 
-        final var firstRef = HASH_BUCKETS[l1BucketId(Thread.currentThread())];
+        if (SegmentMagazine.CAPACITY > 0) {
+            final var magazine = SegmentMagazine.current();
+            if (magazine != null) {
+                magazine.recycle(segment);
+                return;
+            }
+        }
+        recycleShared(segment);
+    }
+
+    /**
+     * Recycles a segment that can be pooled to the shared buckets, bypassing the thread-local magazine.
+     */
+    static void recycleShared(final @NonNull Segment segment) {
+        assert segment != null;
+
+        if (STAMPED_BUCKETS != null) {
+            recycleStamped(segment);
+            return;
+        }
+
+        final var firstRef = HASH_BUCKETS[l1BucketId(bucketThread())];
 
         while (true) {
             var first = firstRef.get();
@@ -244,7 +438,8 @@ final class SegmentPool {
             }
 
             final var firstLimit = (first != null) ? first.limit : 0;
-            if (firstLimit >= MAX_SIZE) {
+            if (firstLimit >= l1BucketSize) {
+                maybeShrink();
                 recycleL2(segment);
                 return;
             }
@@ -259,7 +454,7 @@ final class SegmentPool {
     }
 
     private static void recycleL2(final @NonNull Segment segment) {
-        var bucketId = l2BucketId(Thread.currentThread());
+        var bucketId = l2BucketId(bucketThread());
         var attempts = 0;
 
         while (true) {
@@ -281,6 +476,7 @@ final class SegmentPool {
 
                 // L2 pool is also full, not recycling the segment.
                 segment.next = null;
+                DROPS.increment();
                 return;
             }
 
@@ -293,6 +489,501 @@ final class SegmentPool {
         }
     }
 
+    /**
+     * Takes {@code count} segments at once, for operations that need many segments like a large write. Each bucket that
+     * is visited is locked only once, whatever the number of segments taken from it.
+     *
+     * @return the first segment of a chain of {@code count} empty segments linked by their {@code next} reference. The
+     * {@code next} reference of the last segment is null.
+     */
+    static @NonNull Segment takeChain(final int count) {
+        assert count > 0;
+
+        if (SegmentMagazine.CAPACITY > 0) {
+            final var magazine = SegmentMagazine.current();
+            if (magazine != null) {
+                return magazine.takeChain(count);
+            }
+        }
+        return takeChainShared(count);
+    }
+
+    /**
+     * Takes a chain of {@code count} segments from the shared buckets, bypassing the thread-local magazine.
+     */
+    static @NonNull Segment takeChainShared(final int count) {
+        assert count > 0;
+
+        Segment chain = null;
+        var remaining = count;
+        if (STAMPED_BUCKETS != null) {
+            // the stamped buckets pop one segment at a time
+            while (remaining-- > 0) {
+                final var segment = takeStamped();
+                segment.next = chain;
+                chain = segment;
+            }
+            return chain;
+        }
+
+        final var thread = bucketThread();
+        final var l2BucketId = l2BucketId(thread);
+        // attempt -1 is the L1 bucket, then all the L2 buckets are inspected
+        for (var attempt = -1; attempt < HASH_BUCKET_COUNT_L2 && remaining > 0; attempt++) {
+            final var run = (attempt < 0)
+                    ? takeRun(HASH_BUCKETS[l1BucketId(thread)], remaining, l1BucketSize)
+                    : takeRun(HASH_BUCKETS_L2[(l2BucketId + attempt) & (HASH_BUCKET_COUNT_L2 - 1)], remaining,
+                    SECOND_LEVEL_POOL_BUCKET_SIZE);
+
+            // cleanup the segments of the run, and prepend them to the chain.
+            var taken = 0;
+            var segment = run;
+            while (segment != null) {
+                final var next = segment.next;
+                segment.next = chain;
+                segment.pos = 0;
+                segment.owner = true;
+                segment.limit = 0;
+                chain = segment;
+                segment = next;
+                taken++;
+            }
+            remaining -= taken;
+            if (attempt < 0) {
+                L1_HITS.add(taken);
+            } else {
+                L2_HITS.add(taken);
+            }
+        }
+
+        var allocated = false;
+        while (remaining-- > 0) {
+            // in slab mode, the first allocation recycled all the other segments of its slab to the pool
+            final var segment = (SLAB_SEGMENT_COUNT > 1 && allocated) ? take() : allocate();
+            allocated = true;
+            segment.next = chain;
+            chain = segment;
+        }
+        assert chain != null;
+        return chain;
+    }
+
+    /**
+     * Detaches at most {@code maxCount} segments from the head of a bucket, with a single lock of this bucket. Segments
+     * exceeding {@code bucketSize} that remain in the bucket are released.
+     *
+     * @return the detached run of segments linked by their {@code next} reference, or null if the bucket was empty.
+     */
+    private static @Nullable Segment takeRun(final @NonNull AtomicReference<@Nullable Segment> firstRef,
+                                             final int maxCount,
+                                             final int bucketSize) {
+        while (true) {
+            // Hold the door !!!
+            final var first = firstRef.getAndSet(DOOR);
+            if (first == DOOR) {
+                // We didn't acquire the lock. Let's try again
+                continue;
+            }
+
+            if (first == null) {
+                // We acquired the lock but the pool was empty.
+                firstRef.set(null);
+                return null;
+            }
+
+            // the limit of the first segment is the byte count of the whole bucket
+            if (first.limit <= (long) maxCount * Segment.SIZE) {
+                firstRef.set(null);
+                return first;
+            }
+
+            var last = first;
+            for (var i = 1; i < maxCount; i++) {
+                last = last.next;
+                assert last != null;
+            }
+            var next = last.next;
+            last.next = null;
+            // If the bucket size shrank, release the exceeding segments.
+            while (next != null && next.limit > bucketSize) {
+                next = next.next;
+                DROPS.increment();
+            }
+            firstRef.set(next);
+            return first;
+        }
+    }
+
+    /**
+     * Recycles a chain of segments at once, for operations that release many segments like clearing a large buffer.
+     * Each bucket that is visited is updated by a single CAS, whatever the number of segments recycled to it.
+     *
+     * @param head the first segment of a chain of segments linked by their {@code next} reference. The {@code next}
+     *             reference of the last segment must be null.
+     */
+    static void recycleChain(final @NonNull Segment head) {
+        assert head != null;
+
+        // keep only the segments that can be pooled
+        Segment chain = null;
+        var segment = head;
+        while (segment != null) {
+            final var next = segment.next;
+            segment.prev = null;
+            final var segmentCopyTracker = segment.copyTracker;
+            if (segmentCopyTracker != null && segmentCopyTracker.removeCopy()) {
+                // This segment cannot be recycled.
+                segment.next = null;
+            } else {
+                segment.next = chain;
+                chain = segment;
+            }
+            segment = next;
+        }
+        if (chain == null) {
+            return;
+        }
+
+        if (SegmentMagazine.CAPACITY > 0) {
+            final var magazine = SegmentMagazine.current();
+            if (magazine != null) {
+                magazine.recycleChain(chain);
+                return;
+            }
+        }
+        recycleChainShared(chain);
+    }
+
+    /**
+     * Recycles a chain of segments that can be pooled to the shared buckets, bypassing the thread-local magazine.
+     */
+    static void recycleChainShared(final @NonNull Segment chain) {
+        assert chain != null;
+
+        if (STAMPED_BUCKETS != null) {
+            // the stamped buckets push one segment at a time
+            var segment = chain;
+            while (segment != null) {
+                final var next = segment.next;
+                recycleStamped(segment);
+                segment = next;
+            }
+            return;
+        }
+
+        final var thread = bucketThread();
+        var rest = recycleRun(HASH_BUCKETS[l1BucketId(thread)], chain, l1BucketSize);
+        if (rest == null) {
+            return;
+        }
+        maybeShrink();
+
+        var bucketId = l2BucketId(thread);
+        for (var attempts = 0; attempts < HASH_BUCKET_COUNT_L2 && rest != null; attempts++) {
+            rest = recycleRun(HASH_BUCKETS_L2[bucketId], rest, SECOND_LEVEL_POOL_BUCKET_SIZE);
+            bucketId = (bucketId + 1) & (HASH_BUCKET_COUNT_L2 - 1);
+        }
+
+        // L2 pool is also full, not recycling the remaining segments.
+        while (rest != null) {
+            final var next = rest.next;
+            rest.next = null;
+            DROPS.increment();
+            rest = next;
+        }
+    }
+
+    /**
+     * Pushes as many segments from the head of {@code chain} as the bucket can hold without exceeding
+     * {@code bucketSize}, with a single CAS.
+     *
+     * @return the rest of the chain that did not fit in the bucket, or null if the whole chain was pushed.
+     */
+    private static @Nullable Segment recycleRun(final @NonNull AtomicReference<@Nullable Segment> firstRef,
+                                                final @NonNull Segment chain,
+                                                final int bucketSize) {
+        while (true) {
+            final var first = firstRef.get();
+            if (first == DOOR) {
+                continue; // A take() is currently in progress.
+            }
+
+            final var firstLimit = (first != null) ? first.limit : 0;
+            final var room = (bucketSize - firstLimit) / Segment.SIZE;
+            if (room <= 0) {
+                return chain;
+            }
+
+            // find the last segment of the run that fits in the bucket
+            var last = chain;
+            var runCount = 1;
+            while (runCount < room && last.next != null) {
+                last = last.next;
+                runCount++;
+            }
+            final var rest = last.next;
+
+            // Each element has a limit that's one segment size greater than its successor element.
+            var segment = chain;
+            var limit = firstLimit + runCount * Segment.SIZE;
+            while (segment != rest) {
+                assert segment != null;
+                segment.limit = limit;
+                limit -= Segment.SIZE;
+                segment = segment.next;
+            }
+            last.next = first;
+
+            if (firstRef.compareAndSet(first, chain)) {
+                return rest;
+            }
+            // restore the chain before retrying
+            last.next = rest;
+        }
+    }
+
+    private static @NonNull Segment takeStamped() {
+        assert STAMPED_BUCKETS != null;
+        assert STAMPED_BUCKETS_L2 != null;
+
+        final var thread = bucketThread();
+        final var bucket = STAMPED_BUCKETS[l1BucketId(thread)];
+        var segment = bucket.pop();
+        if (segment != null) {
+            // If the bucket size shrank, release one exceeding segment.
+            if (bucket.count() * Segment.SIZE > l1BucketSize && bucket.pop() != null) {
+                DROPS.increment();
+            }
+            L1_HITS.increment();
+        } else {
+            var bucketId = l2BucketId(thread);
+            for (var attempts = 0; attempts < HASH_BUCKET_COUNT_L2 && segment == null; attempts++) {
+                segment = STAMPED_BUCKETS_L2[bucketId].pop();
+                bucketId = (bucketId + 1) & (HASH_BUCKET_COUNT_L2 - 1);
+            }
+            if (segment == null) {
+                return allocate();
+            }
+            L2_HITS.increment();
+        }
+
+        // cleanup segment to cache.
+        segment.next = null;
+        segment.pos = 0;
+        segment.owner = true;
+        segment.limit = 0;
+        return segment;
+    }
+
+    private static void recycleStamped(final @NonNull Segment segment) {
+        assert STAMPED_BUCKETS != null;
+        assert STAMPED_BUCKETS_L2 != null;
+
+        segment.next = null;
+        final var thread = bucketThread();
+        if (STAMPED_BUCKETS[l1BucketId(thread)].push(segment, l1BucketSize / Segment.SIZE)) {
+            return;
+        }
+        maybeShrink();
+
+        var bucketId = l2BucketId(thread);
+        for (var attempts = 0; attempts < HASH_BUCKET_COUNT_L2; attempts++) {
+            if (STAMPED_BUCKETS_L2[bucketId].push(segment, Integer.MAX_VALUE)) {
+                return;
+            }
+            bucketId = (bucketId + 1) & (HASH_BUCKET_COUNT_L2 - 1);
+        }
+        // L2 pool is also full, not recycling the segment.
+        DROPS.increment();
+    }
+
+    /**
+     * @return a new segment. In slab mode, a slab of {@link #SLAB_SEGMENT_COUNT} segments is allocated at once, the
+     * first segment is returned and all the other ones are recycled to the pool.
+     */
+    private static @NonNull Segment allocate() {
+        maybeGrow();
+        ALLOCATIONS.add(SLAB_SEGMENT_COUNT);
+
+        if (SLAB_SEGMENT_COUNT == 1) {
+            return new Segment();
+        }
+
+        final var slab = new byte[SLAB_SEGMENT_COUNT * Segment.SIZE];
+        for (var i = 1; i < SLAB_SEGMENT_COUNT; i++) {
+            recycle(new Segment(slab, i * Segment.SIZE));
+        }
+        return new Segment(slab, 0);
+    }
+
+    /**
+     * Called on each segment allocation, doubles the L1 bucket size if too many segments were allocated during the
+     * current allocation window.
+     */
+    private static void maybeGrow() {
+        maybeGrow(System.nanoTime());
+    }
+
+    static void maybeGrow(final long now) {
+        lastResizeOrAllocation = now;
+        if (now - allocationWindowStart > ALLOCATION_WINDOW_NANOS) {
+            // start a new allocation window
+            allocationWindowStart = now;
+            WINDOW_ALLOCATION_COUNT.set(0);
+        }
+        if (WINDOW_ALLOCATION_COUNT.incrementAndGet() < GROW_ALLOCATION_THRESHOLD) {
+            return;
+        }
+
+        WINDOW_ALLOCATION_COUNT.set(0);
+        final var currentBucketSize = l1BucketSize;
+        if (currentBucketSize < MAX_ADAPTIVE_SIZE) {
+            final var newBucketSize = Math.min(currentBucketSize * 2, MAX_ADAPTIVE_SIZE);
+            l1BucketSize = newBucketSize;
+            if (LOGGER.isLoggable(DEBUG)) {
+                LOGGER.log(DEBUG, "Sustained allocation pressure, L1 bucket size grows to {0} bytes",
+                        newBucketSize);
+            }
+        }
+    }
+
+    /**
+     * Called on each {@link #take()} from the shared buckets and when a segment is recycled to a full L1 bucket, halves
+     * the L1 bucket size if no segment was allocated for a long time, then trims all the L1 buckets. This only reads the
+     * clock when the L1 bucket size has grown.
+     */
+    private static void maybeShrink() {
+        if (l1BucketSize <= MAX_SIZE) {
+            return;
+        }
+        maybeShrink(System.nanoTime());
+    }
+
+    static void maybeShrink(final long now) {
+        final var currentBucketSize = l1BucketSize;
+        if (currentBucketSize <= MAX_SIZE) {
+            return;
+        }
+        if (now - lastResizeOrAllocation <= SHRINK_IDLE_NANOS) {
+            return;
+        }
+
+        lastResizeOrAllocation = now;
+        final var newBucketSize = Math.max(currentBucketSize / 2, MAX_SIZE);
+        l1BucketSize = newBucketSize;
+        if (LOGGER.isLoggable(DEBUG)) {
+            LOGGER.log(DEBUG, "Idle pool, L1 bucket size shrinks to {0} bytes", newBucketSize);
+        }
+        trimL1Buckets(newBucketSize);
+    }
+
+    /**
+     * Releases the segments exceeding {@code bucketSize} from all the L1 buckets, so an idle pool does not wait for
+     * later takes to drop them.
+     */
+    private static void trimL1Buckets(final int bucketSize) {
+        if (STAMPED_BUCKETS != null) {
+            for (final var bucket : STAMPED_BUCKETS) {
+                while (bucket.count() * Segment.SIZE > bucketSize && bucket.pop() != null) {
+                    DROPS.increment();
+                }
+            }
+            return;
+        }
+
+        for (final var firstRef : HASH_BUCKETS) {
+            while (true) {
+                // Hold the door !!!
+                var first = firstRef.getAndSet(DOOR);
+                if (first == DOOR) {
+                    // We didn't acquire the lock. Let's try again
+                    continue;
+                }
+                // the segments with the highest limits are at the head of the bucket
+                while (first != null && first.limit > bucketSize) {
+                    final var next = first.next;
+                    first.next = null;
+                    first = next;
+                    DROPS.increment();
+                }
+                firstRef.set(first);
+                break;
+            }
+        }
+    }
+
+    /**
+     * For tests only: resets the L1 bucket size and the allocation statistics.
+     */
+    static void resetAdaptiveSize() {
+        final var now = System.nanoTime();
+        l1BucketSize = MAX_SIZE;
+        WINDOW_ALLOCATION_COUNT.set(0);
+        allocationWindowStart = now;
+        lastResizeOrAllocation = now;
+        trimL1Buckets(MAX_SIZE);
+    }
+
+    /**
+     * @return the current number of bytes in the L1 buckets. A bucket locked by a {@link #take()} is not counted.
+     */
+    static long l1PooledByteCount() {
+        if (STAMPED_BUCKETS != null) {
+            return pooledByteCount(STAMPED_BUCKETS);
+        }
+        return pooledByteCount(HASH_BUCKETS);
+    }
+
+    /**
+     * @return the current number of bytes in the L2 buckets. A bucket locked by a {@link #take()} is not counted.
+     */
+    static long l2PooledByteCount() {
+        if (STAMPED_BUCKETS_L2 != null) {
+            return pooledByteCount(STAMPED_BUCKETS_L2);
+        }
+        return pooledByteCount(HASH_BUCKETS_L2);
+    }
+
+    private static long pooledByteCount(final @NonNull StampedSegmentStack @NonNull [] buckets) {
+        var result = 0L;
+        for (final var bucket : buckets) {
+            result += (long) bucket.count() * Segment.SIZE;
+        }
+        return result;
+    }
+
+    private static long pooledByteCount(final @NonNull AtomicReference<@Nullable Segment> @NonNull [] buckets) {
+        var result = 0L;
+        for (final var bucket : buckets) {
+            final var first = bucket.get();
+            // the limit of the first segment is the byte count of the whole bucket
+            if (first != null && first != DOOR) {
+                result += first.limit;
+            }
+        }
+        return result;
+    }
+
+    static int l1BucketSize() {
+        return l1BucketSize;
+    }
+
+    /**
+     * @return the current thread, or its carrier thread if it is a virtual thread and carrier thread bucketing is
+     * enabled.
+     */
+    static @NonNull Thread bucketThread() {
+        final var thread = Thread.currentThread();
+        if (CURRENT_CARRIER_THREAD == null || !thread.isVirtual()) {
+            return thread;
+        }
+        try {
+            return (Thread) CURRENT_CARRIER_THREAD.invokeExact();
+        } catch (Throwable t) {
+            return thread;
+        }
+    }
+
     static int l1BucketId(final @NonNull Thread thread) {
         return bucketId(thread, HASH_BUCKET_COUNT - 1L);
     }
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl5;
+
+/**
+ * The management interface of the segment pool, see {@link SegmentPoolMetrics}.
+ */
+public interface SegmentPoolMXBean {
+    /**
+     * @return the number of segments taken from a first-level bucket.
+     */
+    long getL1Hits();
+
+    /**
+     * @return the number of segments taken from a second-level bucket, because the first-level bucket was empty.
+     */
+    long getL2Hits();
+
+    /**
+     * @return the number of segments allocated, because both pool levels were empty.
+     */
+    long getAllocations();
+
+    /**
+     * @return the number of segments released to the GC, because both pool levels were full or because the first-level
+     * bucket size shrank.
+     */
+    long getDrops();
+
+    /**
+     * @return the current number of bytes pooled in the first-level buckets.
+     */
+    long getL1PooledBytes();
+
+    /**
+     * @return the current number of bytes pooled in the second-level buckets.
+     */
+    long getL2PooledBytes();
+
+    /**
+     * @return the current maximum number of bytes pooled per first-level bucket.
+     */
+    int getL1BucketSize();
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl5;
+
+import jdk.jfr.*;
+import org.jspecify.annotations.NonNull;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.System.Logger.Level.ERROR;
+
+/**
+ * Metrics of the segment pool. Counters are striped {@link java.util.concurrent.atomic.LongAdder}s incremented by the
+ * pool, pooled byte counts are read from the head segment of each bucket when requested.
+ * <p>
+ * Call {@link #register()} to expose these metrics as the {@code jayo.playground:type=SegmentPool,impl=5} MXBean,
+ * and as the {@code jayo.SegmentPool} periodic JFR event.
+ */
+public final class SegmentPoolMetrics implements SegmentPoolMXBean {
+    private static final System.Logger LOGGER = System.getLogger("jayo.SegmentPoolMetrics");
+
+    private static final @NonNull SegmentPoolMetrics INSTANCE = new SegmentPoolMetrics();
+
+    private static final AtomicBoolean REGISTERED = new AtomicBoolean(false);
+
+    // un-instantiable
+    private SegmentPoolMetrics() {
+    }
+
+    /**
+     * @return the metrics of the segment pool.
+     */
+    public static @NonNull SegmentPoolMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the segment pool MXBean in the platform MBean server, and the segment pool periodic JFR event. Calling
+     * this method more than once has no effect.
+     */
+    public static void register() {
+        if (!REGISTERED.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(INSTANCE, new ObjectName("jayo.playground:type=SegmentPool,impl=5"));
+        } catch (JMException e) {
+            LOGGER.log(ERROR, "Could not register the segment pool MXBean", e);
+        }
+        FlightRecorder.addPeriodicEvent(SegmentPoolEvent.class, () -> {
+            final var event = new SegmentPoolEvent();
+            event.l1Hits = INSTANCE.getL1Hits();
+            event.l2Hits = INSTANCE.getL2Hits();
+            event.allocations = INSTANCE.getAllocations();
+            event.drops = INSTANCE.getDrops();
+            event.l1PooledBytes = INSTANCE.getL1PooledBytes();
+            event.l2PooledBytes = INSTANCE.getL2PooledBytes();
+            event.l1BucketSize = INSTANCE.getL1BucketSize();
+            event.commit();
+        });
+    }
+
+    @Override
+    public long getL1Hits() {
+        return SegmentPool.L1_HITS.sum();
+    }
+
+    @Override
+    public long getL2Hits() {
+        return SegmentPool.L2_HITS.sum();
+    }
+
+    @Override
+    public long getAllocations() {
+        return SegmentPool.ALLOCATIONS.sum();
+    }
+
+    @Override
+    public long getDrops() {
+        return SegmentPool.DROPS.sum();
+    }
+
+    @Override
+    public long getL1PooledBytes() {
+        return SegmentPool.l1PooledByteCount();
+    }
+
+    @Override
+    public long getL2PooledBytes() {
+        return SegmentPool.l2PooledByteCount();
+    }
+
+    @Override
+    public int getL1BucketSize() {
+        return SegmentPool.l1BucketSize();
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentPoolMetrics{" +
+                "l1Hits=" + getL1Hits() +
+                ", l2Hits=" + getL2Hits() +
+                ", allocations=" + getAllocations() +
+                ", drops=" + getDrops() +
+                ", l1PooledBytes=" + getL1PooledBytes() +
+                ", l2PooledBytes=" + getL2PooledBytes() +
+                ", l1BucketSize=" + getL1BucketSize() +
+                '}';
+    }
+
+    @Name("jayo.SegmentPool")
+    @Label("Segment Pool")
+    @Category("Jayo")
+    @Period("1 s")
+    @StackTrace(false)
+    static final class SegmentPoolEvent extends Event {
+        @Label("L1 Hits")
+        long l1Hits;
+
+        @Label("L2 Hits")
+        long l2Hits;
+
+        @Label("Allocations")
+        long allocations;
+
+        @Label("Drops")
+        long drops;
+
+        @Label("L1 Pooled Bytes")
+        @DataAmount
+        long l1PooledBytes;
+
+        @Label("L2 Pooled Bytes")
+        @DataAmount
+        long l2PooledBytes;
+
+        @Label("L1 Bucket Size")
+        @DataAmount
+        int l1BucketSize;
+    }
+}
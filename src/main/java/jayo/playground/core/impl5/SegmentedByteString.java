@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ *
+ * Forked from Okio (https://github.com/square/okio), original copyright is below
+ *
+ * Copyright (C) 2015 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jayo.playground.core.impl5;
+
+import jayo.playground.core.ByteString;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+
+import static jayo.playground.core.impl5.Utils.HEX_DIGIT_CHARS;
+import static jayo.playground.core.impl5.Utils.checkOffsetAndCount;
+
+/**
+ * An immutable byte string composed of segments. This class exists to implement efficient snapshots of buffers. It is
+ * implemented as an array of segments, plus a directory of the cumulative byte count at the end of each segment.
+ * <p>
+ * The segments are {@linkplain Segment#sharedCopy() shared copies} of the buffer's segments. They are never recycled,
+ * so their copy tracker keeps the original segments out of the pool, and their bytes cannot be overwritten.
+ */
+public final class SegmentedByteString implements ByteString {
+    final @NonNull Segment @NonNull [] segments;
+    /**
+     * {@code directory[i]} is the byte count of all segments up to and including {@code segments[i]}.
+     */
+    final int @NonNull [] directory;
+    /**
+     * Lazily computed, 0 if not computed yet.
+     */
+    private int hashCode = 0;
+    private @Nullable String utf8;
+
+    SegmentedByteString(final @NonNull Segment @NonNull [] segments, final int @NonNull [] directory) {
+        assert segments != null;
+        assert directory != null;
+        assert segments.length > 0 && segments.length == directory.length;
+
+        this.segments = segments;
+        this.directory = directory;
+    }
+
+    @Override
+    public int byteSize() {
+        return directory[segments.length - 1];
+    }
+
+    @Override
+    public byte getByte(final int index) {
+        checkOffsetAndCount(byteSize(), index, 1L);
+        final var segmentIndex = segmentIndex(index);
+        final var segment = segments[segmentIndex];
+        return segment.data[segment.offset + segment.pos + index - segmentStart(segmentIndex)];
+    }
+
+    @Override
+    public byte @NonNull [] toByteArray() {
+        final var result = new byte[byteSize()];
+        var resultPos = 0;
+        for (final var segment : segments) {
+            final var byteCount = segment.limit - segment.pos;
+            System.arraycopy(segment.data, segment.offset + segment.pos, result, resultPos, byteCount);
+            resultPos += byteCount;
+        }
+        return result;
+    }
+
+    @Override
+    public @NonNull String decodeToUtf8() {
+        var result = utf8;
+        if (result == null) {
+            // races are harmless, they compute the same string
+            if (segments.length == 1) {
+                final var segment = segments[0];
+                result = new String(segment.data, segment.offset + segment.pos, segment.limit - segment.pos,
+                        StandardCharsets.UTF_8);
+            } else {
+                result = new String(toByteArray(), StandardCharsets.UTF_8);
+            }
+            utf8 = result;
+        }
+        return result;
+    }
+
+    @Override
+    public @NonNull String hex() {
+        final var result = new char[byteSize() * 2];
+        var c = 0;
+        for (final var segment : segments) {
+            final var end = segment.offset + segment.limit;
+            for (var i = segment.offset + segment.pos; i < end; i++) {
+                final var b = segment.data[i];
+                result[c++] = HEX_DIGIT_CHARS[b >> 4 & 0xf];
+                result[c++] = HEX_DIGIT_CHARS[b & 0xf];
+            }
+        }
+        return new String(result);
+    }
+
+    @Override
+    public @NonNull String base64() {
+        return Base64.getEncoder().encodeToString(toByteArray());
+    }
+
+    @Override
+    public boolean rangeEquals(final int offset,
+                               final @NonNull ByteString other,
+                               final int otherOffset,
+                               final int byteCount) {
+        Objects.requireNonNull(other);
+        if (offset < 0 || byteCount < 0 || offset > byteSize() - byteCount) {
+            return false;
+        }
+        if (byteCount == 0) {
+            return otherOffset >= 0 && otherOffset <= other.byteSize();
+        }
+
+        var _offset = offset;
+        var _otherOffset = otherOffset;
+        final var endOffset = offset + byteCount;
+        // Go segment-by-segment through this, passing arrays to other's rangeEquals().
+        var segmentIndex = segmentIndex(offset);
+        while (_offset < endOffset) {
+            final var segment = segments[segmentIndex];
+            final var segmentStart = segmentStart(segmentIndex);
+            final var toCompare = Math.min(endOffset, directory[segmentIndex]) - _offset;
+            final var segmentPos = segment.offset + segment.pos + _offset - segmentStart;
+            if (!other.rangeEquals(_otherOffset, segment.data, segmentPos, toCompare)) {
+                return false;
+            }
+            _otherOffset += toCompare;
+            _offset += toCompare;
+            segmentIndex++;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean rangeEquals(final int offset,
+                               final byte @NonNull [] other,
+                               final int otherOffset,
+                               final int byteCount) {
+        Objects.requireNonNull(other);
+        if (offset < 0 || byteCount < 0 || offset > byteSize() - byteCount ||
+                otherOffset < 0 || otherOffset > other.length - byteCount) {
+            return false;
+        }
+
+        var _offset = offset;
+        var _otherOffset = otherOffset;
+        final var endOffset = offset + byteCount;
+        // Go segment-by-segment through this, comparing ranges of arrays.
+        var segmentIndex = (byteCount > 0) ? segmentIndex(offset) : 0;
+        while (_offset < endOffset) {
+            final var segment = segments[segmentIndex];
+            final var toCompare = Math.min(endOffset, directory[segmentIndex]) - _offset;
+            final var segmentPos = segment.offset + segment.pos + _offset - segmentStart(segmentIndex);
+            if (!Arrays.equals(segment.data, segmentPos, segmentPos + toCompare,
+                    other, _otherOffset, _otherOffset + toCompare)) {
+                return false;
+            }
+            _otherOffset += toCompare;
+            _offset += toCompare;
+            segmentIndex++;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object other) {
+        if (other == this) {
+            return true;
+        }
+        return other instanceof ByteString _other &&
+                _other.byteSize() == byteSize() &&
+                rangeEquals(0, _other, 0, byteSize());
+    }
+
+    @Override
+    public int hashCode() {
+        var result = hashCode;
+        if (result != 0) {
+            return result;
+        }
+        // same as Arrays.hashCode(byte[]), so it does not depend on the byte string implementation
+        result = 1;
+        for (final var segment : segments) {
+            final var end = segment.offset + segment.limit;
+            for (var i = segment.offset + segment.pos; i < end; i++) {
+                result = 31 * result + segment.data[i];
+            }
+        }
+        hashCode = result;
+        return result;
+    }
+
+    @Override
+    public @NonNull String toString() {
+        return RealByteString.toString(this);
+    }
+
+    /**
+     * @return the index of the segment that contains the byte at {@code index}.
+     */
+    private int segmentIndex(final int index) {
+        // Search for (index + 1) instead of (index) because the directory holds sizes, not indexes.
+        final var i = Arrays.binarySearch(directory, 0, segments.length, index + 1);
+        return (i >= 0) ? i : ~i;
+    }
+
+    private int segmentStart(final int segmentIndex) {
+        return (segmentIndex == 0) ? 0 : directory[segmentIndex - 1];
+    }
+}
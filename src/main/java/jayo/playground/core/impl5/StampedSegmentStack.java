@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl5;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A bounded lock-free stack of {@linkplain Segment segments}, used as a bucket of the segment pool when the
+ * {@code jayo.pool.impl} system property is set to {@code stamped}.
+ * <p>
+ * This is a Treiber stack that never spins on a sentinel value, its segments are stored in a fixed array of slots, and
+ * the stack links slot indexes. The head of the stack is a single {@code long} updated by CAS, it packs a stamp
+ * incremented on each update, the number of segments in the stack and the index of the top slot. The stamp makes the
+ * CAS fail if the head was popped and pushed back in-between, which defends against the ABA problem.
+ * <p>
+ * Free slots are linked in a second stack, with the same packed representation.
+ */
+final class StampedSegmentStack {
+    // packed head = stamp (32 bits) | count (16 bits) | index + 1 (16 bits), index + 1 = 0 means empty
+    private static final int INDEX_BITS = 16;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1L;
+    private static final int COUNT_SHIFT = INDEX_BITS;
+    private static final long COUNT_MASK = 0xFFFFL << COUNT_SHIFT;
+    private static final int STAMP_SHIFT = 32;
+
+    /**
+     * The maximum capacity of a stack.
+     */
+    static final int MAX_CAPACITY = (int) INDEX_MASK - 1;
+
+    private final @Nullable Segment @NonNull [] slots;
+    /**
+     * The index + 1 of the next slot, for a slot that is in the stack of segments or in the stack of free slots.
+     */
+    private final int @NonNull [] nextIndexes;
+
+    @SuppressWarnings("FieldMayBeFinal")
+    private volatile long head = 0L;
+    @SuppressWarnings("FieldMayBeFinal")
+    private volatile long free;
+
+    // VarHandle mechanics
+    private static final VarHandle HEAD;
+    private static final VarHandle FREE;
+
+    static {
+        try {
+            final var l = MethodHandles.lookup();
+            HEAD = l.findVarHandle(StampedSegmentStack.class, "head", long.class);
+            FREE = l.findVarHandle(StampedSegmentStack.class, "free", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    StampedSegmentStack(final int capacity) {
+        assert capacity > 0 && capacity <= MAX_CAPACITY;
+
+        slots = new Segment[capacity];
+        nextIndexes = new int[capacity];
+        // all slots are free
+        for (var i = 0; i < capacity - 1; i++) {
+            nextIndexes[i] = i + 2;
+        }
+        free = pack(0L, capacity, 1);
+    }
+
+    /**
+     * @return the segment on top of this stack, or null if it is empty.
+     */
+    @Nullable
+    Segment pop() {
+        final var index = popIndex(HEAD);
+        if (index < 0) {
+            return null;
+        }
+        final var segment = slots[index];
+        slots[index] = null;
+        pushIndex(FREE, index);
+        return segment;
+    }
+
+    /**
+     * Pushes {@code segment} on top of this stack if it contains less than {@code maxCount} segments.
+     *
+     * @return true if the segment was pushed, false if this stack is full.
+     */
+    boolean push(final @NonNull Segment segment, final int maxCount) {
+        assert segment != null;
+
+        if (count(head) >= maxCount) {
+            return false;
+        }
+        final var index = popIndex(FREE);
+        if (index < 0) {
+            return false;
+        }
+        slots[index] = segment;
+        pushIndex(HEAD, index);
+        return true;
+    }
+
+    /**
+     * @return the current number of segments in this stack.
+     */
+    int count() {
+        return count(head);
+    }
+
+    private int popIndex(final @NonNull VarHandle stack) {
+        while (true) {
+            final var current = (long) stack.getVolatile(this);
+            final var indexPlusOne = (int) (current & INDEX_MASK);
+            if (indexPlusOne == 0) {
+                return -1;
+            }
+            // this plain read may be stale, the CAS will fail in this case because the stamp will have changed
+            final var next = nextIndexes[indexPlusOne - 1];
+            final var updated = pack(stamp(current) + 1L, count(current) - 1, next);
+            if (stack.compareAndSet(this, current, updated)) {
+                return indexPlusOne - 1;
+            }
+        }
+    }
+
+    private void pushIndex(final @NonNull VarHandle stack, final int index) {
+        while (true) {
+            final var current = (long) stack.getVolatile(this);
+            nextIndexes[index] = (int) (current & INDEX_MASK);
+            final var updated = pack(stamp(current) + 1L, count(current) + 1, index + 1);
+            if (stack.compareAndSet(this, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    private static long pack(final long stamp, final int count, final int indexPlusOne) {
+        return (stamp << STAMP_SHIFT) | ((long) count << COUNT_SHIFT) | indexPlusOne;
+    }
+
+    private static long stamp(final long packed) {
+        return packed >>> STAMP_SHIFT;
+    }
+
+    private static int count(final long packed) {
+        return (int) ((packed & COUNT_MASK) >>> COUNT_SHIFT);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl5;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * UTF-8 decoding helpers. Malformed input is replaced by the U+FFFD replacement character exactly like
+ * {@code new String(bytes, StandardCharsets.UTF_8)} does.
+ */
+final class Utf8Utils {
+    // un-instantiable
+    private Utf8Utils() {
+    }
+
+    static final int REPLACEMENT_CODE_POINT = '\ufffd';
+
+    /**
+     * @return the length of the UTF-8 sequence that starts with the {@code leadByte} byte, or 1 if it is not a valid
+     * lead byte.
+     */
+    static int sequenceLength(final byte leadByte) {
+        final var b0 = leadByte & 0xff;
+        if (b0 >= 0xc2 && b0 <= 0xdf) {
+            return 2;
+        }
+        if (b0 >= 0xe0 && b0 <= 0xef) {
+            return 3;
+        }
+        if (b0 >= 0xf0 && b0 <= 0xf4) {
+            return 4;
+        }
+        return 1;
+    }
+
+    /**
+     * Decodes the code point that starts at {@code pos} in {@code data}, reading at most {@code available} bytes.
+     *
+     * @return the number of bytes consumed in the 32 high bits and the decoded code point, or
+     * {@link #REPLACEMENT_CODE_POINT} if the sequence is malformed, in the 32 low bits.
+     */
+    static long decodeCodePoint(final byte @NonNull [] data, final int pos, final int available) {
+        assert data != null;
+        assert available > 0;
+
+        final var b0 = data[pos] & 0xff;
+        if (b0 < 0x80) {
+            return pack(1, b0);
+        }
+
+        if (b0 >= 0xc2 && b0 <= 0xdf) {
+            // 110xxxxx 10xxxxxx
+            if (available < 2 || isNotContinuation(data[pos + 1])) {
+                return pack(1, REPLACEMENT_CODE_POINT);
+            }
+            return pack(2, (b0 & 0x1f) << 6 | (data[pos + 1] & 0x3f));
+        }
+
+        if (b0 >= 0xe0 && b0 <= 0xef) {
+            // 1110xxxx 10xxxxxx 10xxxxxx, without overlong encodings
+            if (available < 2) {
+                return pack(1, REPLACEMENT_CODE_POINT);
+            }
+            final var b1 = data[pos + 1] & 0xff;
+            if (b1 < ((b0 == 0xe0) ? 0xa0 : 0x80) || b1 > 0xbf) {
+                return pack(1, REPLACEMENT_CODE_POINT);
+            }
+            if (available < 3 || isNotContinuation(data[pos + 2])) {
+                return pack(2, REPLACEMENT_CODE_POINT);
+            }
+            final var codePoint = (b0 & 0x0f) << 12 | (b1 & 0x3f) << 6 | (data[pos + 2] & 0x3f);
+            // like the JDK, an encoded surrogate is replaced as a whole
+            return pack(3, Character.isSurrogate((char) codePoint) ? REPLACEMENT_CODE_POINT : codePoint);
+        }
+
+        if (b0 >= 0xf0 && b0 <= 0xf4) {
+            // 11110xxx 10xxxxxx 10xxxxxx 10xxxxxx, without overlong encodings and code points above U+10FFFF
+            if (available < 2) {
+                return pack(1, REPLACEMENT_CODE_POINT);
+            }
+            final var b1 = data[pos + 1] & 0xff;
+            if (b1 < ((b0 == 0xf0) ? 0x90 : 0x80) || b1 > ((b0 == 0xf4) ? 0x8f : 0xbf)) {
+                return pack(1, REPLACEMENT_CODE_POINT);
+            }
+            if (available < 3 || isNotContinuation(data[pos + 2])) {
+                return pack(2, REPLACEMENT_CODE_POINT);
+            }
+            if (available < 4 || isNotContinuation(data[pos + 3])) {
+                return pack(3, REPLACEMENT_CODE_POINT);
+            }
+            return pack(4,
+                    (b0 & 0x07) << 18 | (b1 & 0x3f) << 12 | (data[pos + 2] & 0x3f) << 6 | (data[pos + 3] & 0x3f));
+        }
+
+        // a continuation byte or an invalid lead byte
+        return pack(1, REPLACEMENT_CODE_POINT);
+    }
+
+    private static boolean isNotContinuation(final byte b) {
+        // 10xxxxxx
+        return (b & 0xc0) != 0x80;
+    }
+
+    private static long pack(final int byteCount, final int codePoint) {
+        return ((long) byteCount << 32) | codePoint;
+    }
+}
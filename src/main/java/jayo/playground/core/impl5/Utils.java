@@ -24,6 +24,10 @@ package jayo.playground.core.impl5;
 import jayo.playground.core.Reader;
 import org.jspecify.annotations.NonNull;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
 public final class Utils {
     // un-instantiable
     private Utils() {
@@ -32,6 +36,16 @@ public final class Utils {
     static final char @NonNull [] HEX_DIGIT_CHARS =
             {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
 
+    /**
+     * Views of a byte array as big-endian shorts, ints and longs. The long view is also used to process 8 bytes at a
+     * time.
+     */
+    static final VarHandle SHORT_ARRAY_VIEW = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    static final VarHandle INT_ARRAY_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    static final VarHandle LONG_ARRAY_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
     public static @NonNull RealBuffer5 getBufferFromReader(final @NonNull Reader reader) {
         if (reader instanceof RealReader5 _reader) {
             return _reader.buffer;
@@ -45,4 +59,47 @@ public final class Utils {
             throw new IndexOutOfBoundsException("size=" + size + " offset=" + offset + " byteCount=" + byteCount);
         }
     }
+
+    /**
+     * @return the index of the first byte that is not ASCII in {@code data} between {@code fromIndex} (inclusive) and
+     * {@code toIndex} (exclusive), or {@code toIndex} if all these bytes are ASCII.
+     */
+    static int asciiRunEnd(final byte @NonNull [] data, final int fromIndex, final int toIndex) {
+        var i = fromIndex;
+        // 8 bytes at a time, a byte is not ASCII if its high bit is set
+        while (i + Long.BYTES <= toIndex && ((long) LONG_ARRAY_VIEW.get(data, i) & HIGH_BITS) == 0L) {
+            i += Long.BYTES;
+        }
+        while (i < toIndex && data[i] >= 0) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return the index of the first {@code b} byte in {@code data} between {@code fromIndex} (inclusive) and
+     * {@code toIndex} (exclusive), or {@code -1} if it is not found.
+     */
+    static int indexOfByte(final byte @NonNull [] data, final int fromIndex, final int toIndex, final byte b) {
+        var i = fromIndex;
+        // 8 bytes at a time, XOR with the pattern turns matching bytes to zero, then the high bit of each zero byte is
+        // set without any false positive
+        final var pattern = (b & 0xffL) * 0x0101010101010101L;
+        while (i + Long.BYTES <= toIndex) {
+            final var word = (long) LONG_ARRAY_VIEW.get(data, i) ^ pattern;
+            final var zeros = ~(((word & ~HIGH_BITS) + ~HIGH_BITS) | word | ~HIGH_BITS);
+            if (zeros != 0L) {
+                // big-endian view, the first byte in memory is the most significant one
+                return i + (Long.numberOfLeadingZeros(zeros) >>> 3);
+            }
+            i += Long.BYTES;
+        }
+        while (i < toIndex) {
+            if (data[i] == b) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ *
+ * Forked from Okio (https://github.com/square/okio), original copyright is below
+ *
+ * Copyright (C) 2013 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jayo.playground.core.impl6;
+
+import jayo.playground.core.Buffer;
+import jayo.playground.core.JayoException;
+import jayo.playground.core.RawReader;
+import org.jspecify.annotations.NonNull;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+
+import static java.lang.System.Logger.Level.TRACE;
+
+public final class ReadableByteChannelRawReader6 implements RawReader {
+    private static final System.Logger LOGGER = System.getLogger("jayo.ReadableByteChannelRawReader");
+
+    final @NonNull ReadableByteChannel in;
+
+    public ReadableByteChannelRawReader6(final @NonNull ReadableByteChannel in) {
+        this.in = Objects.requireNonNull(in);
+    }
+
+    /**
+     * Execute a single read from the ReadableByteChannel, which reads up to byteCount bytes of data from the readable
+     * channel directly into the native memory of the writable tail segment, so the channel does not read into a
+     * temporary direct buffer first. A smaller number may be read.
+     *
+     * @return the number of bytes actually read.
+     */
+    @Override
+    public long readAtMostTo(final @NonNull Buffer destination, final long byteCount) {
+        Objects.requireNonNull(destination);
+        if (byteCount < 0L) {
+            throw new IllegalArgumentException("byteCount < 0 : " + byteCount);
+        }
+        final var dst = (RealBuffer6) destination;
+
+        if (byteCount == 0L) {
+            return 0L;
+        }
+
+        if (LOGGER.isLoggable(TRACE)) {
+            LOGGER.log(TRACE, "ReadableByteChannelRawReader: Start reading up to {0} bytes from the " +
+                            "ReadableByteChannel to {1}Buffer#{2}{3}",
+                    byteCount, System.lineSeparator(), dst, System.lineSeparator());
+        }
+
+        final var dstTail = dst.writableTail(1);
+        final var toRead = (int) Math.min(byteCount, Segment.SIZE - dstTail.limit);
+        final int read;
+        try {
+            read = in.read(dstTail.data.asSlice(dstTail.limit, toRead).asByteBuffer());
+        } catch (IOException e) {
+            throw JayoException.buildJayoException(e);
+        }
+        if (read > 0) {
+            dstTail.limit += read;
+            dst.byteSize += read;
+        } else if (dstTail.pos == dstTail.limit) {
+            // We allocated a tail segment, but didn't end up needing it. Recycle!
+            dst.head = dstTail.pop();
+            SegmentPool.recycle(dstTail);
+        }
+
+        if (LOGGER.isLoggable(TRACE)) {
+            LOGGER.log(TRACE, "ReadableByteChannelRawReader: Finished reading {0} / {1} bytes from the " +
+                            "ReadableByteChannel to {2}Buffer#{3}{4}",
+                    read, byteCount, System.lineSeparator(), dst, System.lineSeparator());
+        }
+
+        return read;
+    }
+
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw JayoException.buildJayoException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "reader(" + in + ")";
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ *
+ * Forked from Okio (https://github.com/square/okio), original copyright is below
+ *
+ * Copyright (C) 2013 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jayo.playground.core.impl6;
+
+import jayo.playground.core.Reader;
+import org.jspecify.annotations.NonNull;
+
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+public final class Utils {
+    // un-instantiable
+    private Utils() {
+    }
+
+    static final char @NonNull [] HEX_DIGIT_CHARS =
+            {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    /**
+     * Layouts of big-endian shorts, ints and longs in segment memory, that may start at any byte offset.
+     */
+    static final ValueLayout.@NonNull OfShort BIG_ENDIAN_SHORT =
+            ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    static final ValueLayout.@NonNull OfInt BIG_ENDIAN_INT =
+            ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    static final ValueLayout.@NonNull OfLong BIG_ENDIAN_LONG =
+            ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    public static @NonNull RealBuffer6 getBufferFromReader(final @NonNull Reader reader) {
+        if (reader instanceof RealReader6 _reader) {
+            return _reader.buffer;
+        }
+
+        return (RealBuffer6) reader;
+    }
+
+    static void checkOffsetAndCount(final long size, final long offset, final long byteCount) {
+        if ((offset | byteCount) < 0 || offset > size || size - offset < byteCount) {
+            throw new IndexOutOfBoundsException("size=" + size + " offset=" + offset + " byteCount=" + byteCount);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ *
+ * Forked from Okio (https://github.com/square/okio), original copyright is below
+ *
+ * Copyright (C) 2013 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jayo.playground.core.impl6;
+
+import jayo.playground.core.Buffer;
+import jayo.playground.core.JayoException;
+import jayo.playground.core.RawWriter;
+import org.jspecify.annotations.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+import static java.lang.System.Logger.Level.TRACE;
+import static jayo.playground.core.impl6.Utils.checkOffsetAndCount;
+
+public final class WritableByteChannelRawWriter6 implements RawWriter {
+    private static final System.Logger LOGGER = System.getLogger("jayo.WritableByteChannelRawWriter");
+
+    /**
+     * The maximum number of segments written in a single gathering write. Operating systems limit the number of buffers
+     * of a vectored write (1024 on Linux), we stay well below.
+     */
+    private static final int MAX_GATHERED_SEGMENTS = 64;
+
+    final @NonNull WritableByteChannel out;
+
+    public WritableByteChannelRawWriter6(final @NonNull WritableByteChannel out) {
+        this.out = Objects.requireNonNull(out);
+    }
+
+    /**
+     * Writes {@code byteCount} bytes to the WritableByteChannel. If it is a {@link GatheringByteChannel}, many
+     * segments are written in a single gathering write, else they are written one segment at a time. Each segment's
+     * native memory is viewed as a direct ByteBuffer, so the channel does not copy it to a temporary direct buffer, and
+     * each fully written segment is recycled immediately.
+     */
+    @Override
+    public void write(final @NonNull Buffer source, final long byteCount) {
+        Objects.requireNonNull(source);
+        checkOffsetAndCount(source.bytesAvailable(), 0L, byteCount);
+        final var src = (RealBuffer6) source;
+
+        if (LOGGER.isLoggable(TRACE)) {
+            LOGGER.log(TRACE, "WritableByteChannelRawWriter: Start writing {0} bytes from Buffer#{1} to the " +
+                            "WritableByteChannel{2}",
+                    byteCount, src, System.lineSeparator());
+        }
+
+        try {
+            if (out instanceof GatheringByteChannel gatheringOut) {
+                gatheringWrite(gatheringOut, src, byteCount);
+            } else {
+                var remaining = byteCount;
+                while (remaining > 0L) {
+                    final var head = src.head;
+                    assert head != null;
+                    final var toWrite = (int) Math.min(remaining, head.limit - head.pos);
+                    final var written = out.write(head.data.asSlice(head.pos, toWrite).asByteBuffer());
+                    checkWritten(written);
+                    src.skipInternal(written);
+                    remaining -= written;
+                }
+            }
+        } catch (IOException e) {
+            throw JayoException.buildJayoException(e);
+        }
+
+        if (LOGGER.isLoggable(TRACE)) {
+            LOGGER.log(TRACE, "WritableByteChannelRawWriter: Finished writing {0} bytes from Buffer#{1} to the " +
+                            "WritableByteChannel{2}",
+                    byteCount, src, System.lineSeparator());
+        }
+    }
+
+    private static void gatheringWrite(final @NonNull GatheringByteChannel out,
+                                       final @NonNull RealBuffer6 src,
+                                       final long byteCount) throws IOException {
+        assert out != null;
+        assert src != null;
+
+        final var byteBuffers = new ByteBuffer[(int) Math.min(MAX_GATHERED_SEGMENTS,
+                byteCount / Segment.SIZE + 2)];
+        var remaining = byteCount;
+        while (remaining > 0L) {
+            // wrap as many segments as needed, starting from the head
+            var segment = src.head;
+            var toWrite = remaining;
+            var length = 0;
+            while (toWrite > 0L && length < byteBuffers.length) {
+                assert segment != null;
+                final var segmentToWrite = (int) Math.min(toWrite, segment.limit - segment.pos);
+                byteBuffers[length++] = segment.data.asSlice(segment.pos, segmentToWrite).asByteBuffer();
+                toWrite -= segmentToWrite;
+                segment = segment.next;
+            }
+
+            final var written = out.write(byteBuffers, 0, length);
+            checkWritten(written);
+            src.skipInternal(written);
+            remaining -= written;
+        }
+    }
+
+    /**
+     * A blocking channel always writes at least one byte. A channel in non-blocking mode may write none, and we would
+     * spin forever waiting for it to be writable again.
+     */
+    private static void checkWritten(final long written) throws IOException {
+        if (written == 0L) {
+            throw new IOException("The WritableByteChannel wrote 0 bytes, it must be in blocking mode");
+        }
+    }
+
+    @Override
+    public void flush() {
+        // a WritableByteChannel has no flush operation.
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw JayoException.buildJayoException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "writer(" + out + ")";
+    }
+}
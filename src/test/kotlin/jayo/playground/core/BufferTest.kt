@@ -1,7 +1,14 @@
 package jayo.playground.core
 
+import jayo.playground.core.impl5.SegmentPoolMetrics
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Test
+import java.nio.ByteBuffer
+import java.security.MessageDigest
+import java.util.zip.CRC32C
+import java.util.zip.GZIPInputStream
 
 class BufferTest {
     @Test
@@ -30,4 +37,370 @@ class BufferTest {
             Buffer.create5().also { it.write((0.toChar()).toString().repeat(66)) }.toString()
         )
     }
+
+    @Test
+    fun segmentPoolMetrics() {
+        val metrics = SegmentPoolMetrics.get()
+        val takenBefore = metrics.l1Hits + metrics.l2Hits + metrics.allocations
+
+        val buffer = Buffer.create5()
+        // more segments than a thread-local magazine can hold, so some of them are recycled to the shared buckets
+        buffer.write("a".repeat(100 * AbstractReaderTest.SEGMENT_SIZE))
+        buffer.clear()
+
+        // a thread-local magazine may serve some segments without going through the shared buckets
+        assertThat(metrics.l1Hits + metrics.l2Hits + metrics.allocations).isGreaterThan(takenBefore)
+        assertThat(metrics.l1PooledBytes + metrics.l2PooledBytes).isGreaterThan(0L)
+    }
+
+    @Test
+    fun largeWriteThenClear() {
+        val buffer = Buffer.create5()
+        buffer.write("a")
+        val large = "b".repeat(5 * AbstractReaderTest.SEGMENT_SIZE + 17)
+        buffer.write(large)
+        assertEquals(large.length + 1L, buffer.bytesAvailable())
+        assertEquals("a$large", buffer.readString())
+
+        buffer.write(large)
+        buffer.clear()
+        assertEquals(0L, buffer.bytesAvailable())
+
+        buffer.write("c")
+        assertEquals("c", buffer.readString())
+    }
+
+    @Test
+    fun writeUtf8AcrossSegments() {
+        val buffer = Buffer.create5()
+        val prefix = "a".repeat(AbstractReaderTest.SEGMENT_SIZE - 1)
+        val string = "é€\uD83D\uDE00a\uD800"
+        buffer.write(prefix)
+        buffer.write(string)
+        val expected = string.toByteArray(Charsets.UTF_8)
+        assertEquals(prefix.length.toLong() + expected.size, buffer.bytesAvailable())
+        buffer.skip(prefix.length.toLong())
+        assertEquals(String(expected, Charsets.UTF_8), buffer.readString())
+    }
+
+    /**
+     * @return a buffer where [bytes] start [headByteCount] bytes before the end of the first segment, so they are split
+     * between the first two segments.
+     */
+    private fun bufferWithSplitBytes(bytes: ByteArray, headByteCount: Int): Buffer {
+        val buffer = Buffer.create5()
+        val prefixSize = AbstractReaderTest.SEGMENT_SIZE - headByteCount
+        // write(ByteArray) fills each segment up to the last byte, unlike the typed writes that need a tail with room
+        buffer.write(ByteArray(prefixSize) { 'a'.code.toByte() } + bytes)
+        buffer.skip(prefixSize.toLong())
+        return buffer
+    }
+
+    @Test
+    fun readUtf8AcrossSegments() {
+        for (codePoint in listOf("é", "€", "\uD83D\uDE00")) {
+            val bytes = (codePoint + "z").toByteArray(Charsets.UTF_8)
+            // split the code point after each of its bytes, the first case puts the lead byte in the last slot
+            for (headByteCount in 1 until bytes.size - 1) {
+                val buffer = bufferWithSplitBytes(bytes, headByteCount)
+                assertEquals(codePoint + "z", buffer.readString(), "split after $headByteCount byte(s)")
+                assertEquals(0L, buffer.bytesAvailable())
+            }
+        }
+    }
+
+    @Test
+    fun readMalformedUtf8AcrossSegments() {
+        val inputs = listOf(
+            // truncated sequences followed by ASCII
+            byteArrayOf(0xe2.toByte(), 'c'.code.toByte(), 'd'.code.toByte()),
+            byteArrayOf(0xe2.toByte(), 0x82.toByte(), 'c'.code.toByte()),
+            byteArrayOf(0xf0.toByte(), 0x9f.toByte(), 0x98.toByte(), 'c'.code.toByte()),
+            // invalid continuation bytes
+            byteArrayOf(0xf0.toByte(), 0x28.toByte(), 0x8c.toByte(), 0x28.toByte()),
+            byteArrayOf(0xe2.toByte(), 0xc3.toByte(), 0xa9.toByte(), 'c'.code.toByte()),
+            // overlong encoding and lone continuation bytes
+            byteArrayOf(0xc0.toByte(), 0xaf.toByte(), 0x80.toByte(), 'c'.code.toByte()),
+            // an encoded surrogate
+            byteArrayOf(0xed.toByte(), 0xa0.toByte(), 0x80.toByte(), 'c'.code.toByte()),
+        )
+        for (bytes in inputs) {
+            for (headByteCount in 1 until bytes.size) {
+                val buffer = bufferWithSplitBytes(bytes, headByteCount)
+                assertEquals(
+                    String(bytes, Charsets.UTF_8), buffer.readString(),
+                    "${bytes.toHexString()} split after $headByteCount byte(s)"
+                )
+            }
+        }
+    }
+
+    @Test
+    fun readUtf8TruncatedByByteCountAcrossSegments() {
+        val bytes = "\uD83D\uDE00z".toByteArray(Charsets.UTF_8)
+        // the string ends in the middle of the code point, that is split between the two segments
+        for (byteCount in 2..3) {
+            val buffer = bufferWithSplitBytes(bytes, 1)
+            assertEquals(String(bytes, 0, byteCount, Charsets.UTF_8), buffer.readString(byteCount.toLong()))
+            assertEquals(bytes.size - byteCount.toLong(), buffer.bytesAvailable())
+        }
+    }
+
+    @Test
+    fun readPrimitivesAcrossSegments() {
+        val longBytes = byteArrayOf(0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08)
+        // split the value after each of its bytes
+        for (headByteCount in 1 until 8) {
+            assertEquals(0x0102030405060708L, bufferWithSplitBytes(longBytes, headByteCount).readLong())
+        }
+        for (headByteCount in 1 until 4) {
+            assertEquals(0x01020304, bufferWithSplitBytes(longBytes, headByteCount).readInt())
+        }
+        assertEquals(0x0102.toShort(), bufferWithSplitBytes(longBytes, 1).readShort())
+
+        // sign bits are kept when the value is split
+        val negativeBytes = ByteArray(8) { 0xfe.toByte() }
+        assertEquals(-0x0101010101010102L, bufferWithSplitBytes(negativeBytes, 3).readLong())
+        assertEquals(-0x01010102, bufferWithSplitBytes(negativeBytes, 2).readInt())
+        assertEquals((-0x0102).toShort(), bufferWithSplitBytes(negativeBytes, 1).readShort())
+
+        // consecutive values, all read from the second segment after the split one
+        val buffer = bufferWithSplitBytes(longBytes + byteArrayOf(0x09, 0x0a, 0x0b, 0x0c, 0x0d, 0x0e, 0x0f), 5)
+        assertEquals(0x0102030405060708L, buffer.readLong())
+        assertEquals(0x090a0b0c, buffer.readInt())
+        assertEquals(0x0d0e.toShort(), buffer.readShort())
+        assertEquals(0x0f.toByte(), buffer.readByte())
+        assertEquals(0L, buffer.bytesAvailable())
+    }
+
+    @Test
+    fun readDecimalLong() {
+        val buffer = Buffer.create5()
+        buffer.write("8675309 -9223372036854775808 00001 -")
+
+        assertEquals(8675309L, buffer.readDecimalLong())
+        assertEquals(' '.code.toByte(), buffer.readByte())
+        assertEquals(Long.MIN_VALUE, buffer.readDecimalLong())
+        assertEquals(' '.code.toByte(), buffer.readByte())
+        assertEquals(1L, buffer.readDecimalLong())
+        assertEquals(' '.code.toByte(), buffer.readByte())
+        assertThatThrownBy { buffer.readDecimalLong() }.isInstanceOf(JayoEOFException::class.java)
+
+        buffer.write("9223372036854775808")
+        assertThatThrownBy { buffer.readDecimalLong() }
+            .isInstanceOf(NumberFormatException::class.java)
+            .hasMessage("Number too large: 9223372036854775808")
+    }
+
+    @Test
+    fun indexOfAcrossSegments() {
+        val buffer = Buffer.create5()
+        buffer.write("a".repeat(AbstractReaderTest.SEGMENT_SIZE - 2))
+        buffer.write("move! He can't see us if we don't move.")
+
+        val m = 'm'.code.toByte()
+        val moveBytes = "move".toByteArray()
+        val start = AbstractReaderTest.SEGMENT_SIZE - 2L
+        assertEquals(start, buffer.indexOf(m))
+        assertEquals(start + 34, buffer.indexOf(m, start + 1))
+        assertEquals(-1L, buffer.indexOf(m, start + 1, start + 34))
+        assertEquals(start, buffer.indexOf(moveBytes))
+        assertEquals(start + 34, buffer.indexOf(moveBytes, start + 1))
+        assertEquals(start + 6, buffer.indexOfElement("HZ".toByteArray()))
+        assertThat(buffer.rangeEquals(start, moveBytes)).isTrue()
+        assertThat(buffer.rangeEquals(start + 1, moveBytes)).isFalse()
+    }
+
+    @Test
+    fun indexOfByteString() {
+        val buffer = Buffer.create5()
+        buffer.write("a".repeat(AbstractReaderTest.SEGMENT_SIZE - 2))
+        buffer.write("move! He can't see us if we don't move.")
+        val start = AbstractReaderTest.SEGMENT_SIZE - 2L
+
+        val move = ByteString.encode("move")
+        assertEquals(start, buffer.indexOf(move))
+        assertEquals(start + 34, buffer.indexOf(move, start + 1))
+        assertEquals(-1L, buffer.indexOf(move, start + 35))
+        assertEquals(-1L, buffer.indexOf(ByteString.encode("moved")))
+        assertThatThrownBy { buffer.indexOf(ByteString.of()) }.isInstanceOf(IllegalArgumentException::class.java)
+
+        // a snapshot is a segmented byte string, its bytes span two segments here
+        val snapshot = buffer.snapshot(start.toInt() + 4)
+        assertEquals(0L, buffer.indexOf(snapshot))
+
+        val upstream = Buffer.create5()
+        upstream.write("a".repeat(3 * AbstractReaderTest.SEGMENT_SIZE))
+        upstream.write("move")
+        val reader = Jayo.buffer5(upstream as RawReader)
+        assertEquals(3L * AbstractReaderTest.SEGMENT_SIZE, reader.indexOf(move))
+        assertEquals(-1L, reader.indexOf(move, 3L * AbstractReaderTest.SEGMENT_SIZE + 1))
+    }
+
+    @Test
+    fun readerIndexOfPullsFromUpstream() {
+        val upstream = Buffer.create5()
+        upstream.write("a".repeat(3 * AbstractReaderTest.SEGMENT_SIZE))
+        upstream.write("\n")
+        upstream.write("b".repeat(3 * AbstractReaderTest.SEGMENT_SIZE))
+        val reader = Jayo.buffer5(upstream as RawReader)
+
+        assertEquals(3L * AbstractReaderTest.SEGMENT_SIZE, reader.indexOf('\n'.code.toByte()))
+        // the reader only buffered what it needed to find the newline
+        assertThat(reader.bytesAvailable()).isLessThan(5L * AbstractReaderTest.SEGMENT_SIZE)
+        assertEquals(-1L, reader.indexOf('c'.code.toByte()))
+    }
+
+    @Test
+    fun readLines() {
+        val upstream = Buffer.create5()
+        upstream.write("I'm a hacker!\n")
+        upstream.write("a".repeat(AbstractReaderTest.SEGMENT_SIZE) + "\r\n")
+        upstream.write("12345\r\n")
+        upstream.write("no line break")
+        val reader = Jayo.buffer5(upstream as RawReader)
+
+        assertEquals("I'm a hacker!", reader.readLine())
+        assertEquals("a".repeat(AbstractReaderTest.SEGMENT_SIZE), reader.readLineStrict())
+        assertThatThrownBy { reader.readLineStrict(4) }
+            .isInstanceOf(JayoEOFException::class.java)
+            .hasMessageStartingWith("\\n not found: limit=4 content=31323334350d0a")
+        // No bytes have been consumed so the caller can retry.
+        assertEquals("12345", reader.readLineStrict(5))
+        assertThatThrownBy { reader.readLineStrict() }.isInstanceOf(JayoEOFException::class.java)
+        assertEquals("no line break", reader.readLine())
+        assertThat(reader.readLine()).isNull()
+    }
+
+    @Test
+    fun readLineStrictBuffersAtMostOneSegmentPastTheLimit() {
+        // an endless upstream without any line break
+        var readByteCount = 0L
+        val upstream = object : RawReader {
+            override fun readAtMostTo(destination: Buffer, byteCount: Long): Long {
+                destination.write("a".repeat(byteCount.toInt()))
+                readByteCount += byteCount
+                return byteCount
+            }
+
+            override fun close() {}
+        }
+        val reader = Jayo.buffer5(upstream)
+
+        assertThatThrownBy { reader.readLineStrict(10) }.isInstanceOf(JayoEOFException::class.java)
+        assertThat(readByteCount).isLessThanOrEqualTo(10L + 2 + AbstractReaderTest.SEGMENT_SIZE)
+        assertThatThrownBy { reader.readLineStrict(100_000) }.isInstanceOf(JayoEOFException::class.java)
+        assertThat(readByteCount).isLessThanOrEqualTo(100_000L + 2 + AbstractReaderTest.SEGMENT_SIZE)
+    }
+
+    @Test
+    fun snapshotSharesSegments() {
+        val buffer = Buffer.create5()
+        val string = "a".repeat(AbstractReaderTest.SEGMENT_SIZE - 1) + "é" + "b".repeat(10)
+        buffer.write(string)
+        val snapshot = buffer.snapshot()
+        val expected = ByteString.encode(string)
+        assertEquals(expected, snapshot)
+        assertEquals(snapshot, expected)
+        assertEquals(expected.hashCode(), snapshot.hashCode())
+        assertEquals(string, snapshot.decodeToUtf8())
+        assertEquals(expected.hex(), snapshot.hex())
+        assertEquals(expected.base64(), snapshot.base64())
+
+        // the snapshot is not affected by later changes to the buffer, and its segments are not reused
+        buffer.clear()
+        Buffer.create5().write("c".repeat(2 * AbstractReaderTest.SEGMENT_SIZE)).clear()
+        assertEquals(string, snapshot.decodeToUtf8())
+        assertEquals(expected.hex(), snapshot.hex())
+
+        buffer.write(snapshot).write(ByteString.of(0x21))
+        assertEquals("$string!", buffer.readString())
+        assertEquals(ByteString.encode("aaa"), Buffer.create5().write(string).snapshot(3))
+    }
+
+    @Test
+    fun unsafeCursorXorInPlace() {
+        val buffer = Buffer.create5()
+        val string = "a".repeat(AbstractReaderTest.SEGMENT_SIZE) + "bcd"
+        buffer.write(string)
+        val snapshot = buffer.snapshot()
+
+        buffer.readAndWriteUnsafe().use { cursor ->
+            while (cursor.next() != -1) {
+                for (i in cursor.start until cursor.end) {
+                    cursor.data!![i] = (cursor.data!![i].toInt() xor 0x20).toByte()
+                }
+            }
+        }
+        // shared segments were copied before being modified
+        assertEquals(string, snapshot.decodeToUtf8())
+
+        buffer.readUnsafe().use { cursor ->
+            assertEquals(3, cursor.seek(AbstractReaderTest.SEGMENT_SIZE.toLong()))
+            assertEquals('B'.code.toByte(), cursor.data!![cursor.start])
+        }
+        buffer.readAndWriteUnsafe().use { cursor ->
+            assertEquals(AbstractReaderTest.SEGMENT_SIZE + 3L, cursor.resizeBuffer(2))
+        }
+        assertEquals("AA", buffer.readString())
+    }
+
+    @Test
+    fun byteBufferViewsAndReadFrom() {
+        val buffer = Buffer.create5()
+        val heap = ByteBuffer.wrap("a".repeat(AbstractReaderTest.SEGMENT_SIZE).toByteArray())
+        val direct = ByteBuffer.allocateDirect(3).put("bcd".toByteArray()).flip()
+        buffer.readFrom(heap, direct)
+        assertThat(heap.hasRemaining()).isFalse()
+        assertThat(direct.hasRemaining()).isFalse()
+        assertEquals(AbstractReaderTest.SEGMENT_SIZE + 3L, buffer.bytesAvailable())
+
+        buffer.asByteBuffers(AbstractReaderTest.SEGMENT_SIZE - 2L, 4L).use { views ->
+            val byteBuffers = views.byteBuffers()
+            assertEquals(2, byteBuffers.size)
+            assertThat(byteBuffers).allMatch { it.isReadOnly }
+            buffer.clear()
+            // the views are still valid once the buffer is cleared
+            val viewed = ByteArray(4)
+            byteBuffers[0].get(viewed, 0, 2)
+            byteBuffers[1].get(viewed, 2, 2)
+            assertEquals("aabc", String(viewed))
+        }
+    }
+
+    @Test
+    fun checksumAndHashing() {
+        val bytes = ("a".repeat(AbstractReaderTest.SEGMENT_SIZE) + "bcd").toByteArray()
+        val expected = CRC32C().apply { update(bytes, 2, bytes.size - 3) }.value
+        val buffer = Buffer.create5().write(bytes)
+        assertEquals(expected, buffer.checksum(CRC32C(), 2, bytes.size - 3L))
+        assertEquals(bytes.size.toLong(), buffer.bytesAvailable())
+
+        val readerDigest = MessageDigest.getInstance("SHA-256")
+        val reader = Jayo.buffer5(Jayo.hashing5(buffer as RawReader, readerDigest))
+        val sink = Buffer.create5()
+        val writerChecksum = CRC32C()
+        val writer = Jayo.buffer5(Jayo.hashing5(sink as RawWriter, writerChecksum))
+        writer.transferFrom(reader)
+        writer.flush()
+        assertThat(readerDigest.digest()).isEqualTo(MessageDigest.getInstance("SHA-256").digest(bytes))
+        assertEquals(CRC32C().apply { update(bytes) }.value, writerChecksum.value)
+        assertEquals(bytes.size.toLong(), sink.bytesAvailable())
+    }
+
+    @Test
+    fun gzipRoundTrip() {
+        val string = "a".repeat(AbstractReaderTest.SEGMENT_SIZE) + "Hello gzip!".repeat(1000)
+        val compressed = Buffer.create5()
+        Jayo.buffer5(Jayo.gzip5(compressed as RawWriter)).use { it.write(string) }
+        assertThat(compressed.bytesAvailable()).isLessThan(string.length.toLong())
+
+        // readable by the JDK
+        val copy = Buffer.create5()
+        compressed.copyTo(copy, 0, compressed.bytesAvailable())
+        val bytes = ByteArray(copy.bytesAvailable().toInt()) { copy.readByte() }
+        assertEquals(string, String(GZIPInputStream(bytes.inputStream()).readAllBytes()))
+
+        assertEquals(string, Jayo.buffer5(Jayo.gzip5(compressed as RawReader)).readString())
+    }
 }
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core
+
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.Arguments
+import org.junit.jupiter.params.provider.MethodSource
+import java.nio.ByteBuffer
+import java.util.stream.Stream
+import java.util.zip.CRC32
+
+/**
+ * The typed read and write methods must work on every buffer and reader implementation, not only on impl5 that
+ * overrides all of them.
+ */
+class DefaultMethodsTest {
+    companion object {
+        @JvmStatic
+        private fun buffers() =
+            Stream.of(
+                Arguments.of("impl0", { Buffer.create0() }),
+                Arguments.of("impl1", { Buffer.create1() }),
+                Arguments.of("impl2", { Buffer.create2() }),
+                Arguments.of("impl3", { Buffer.create3() }),
+                Arguments.of("impl4", { Buffer.create4() }),
+                Arguments.of("impl5", { Buffer.create5() }),
+                Arguments.of("impl6", { Buffer.create6() }),
+            )
+
+        @JvmStatic
+        private fun readers() =
+            Stream.of(
+                Arguments.of("impl0", { content: String -> Jayo.buffer0(Buffer.create0().write(content)) }),
+                Arguments.of("impl1", { content: String -> Jayo.buffer1(Buffer.create1().write(content)) }),
+                Arguments.of("impl2", { content: String -> Jayo.buffer2(Buffer.create2().write(content)) }),
+                Arguments.of("impl3", { content: String -> Jayo.buffer3(Buffer.create3().write(content)) }),
+                Arguments.of("impl4", { content: String -> Jayo.buffer4(Buffer.create4().write(content)) }),
+                Arguments.of("impl5", { content: String -> Jayo.buffer5(Buffer.create5().write(content) as RawReader) }),
+                Arguments.of("impl6", { content: String -> Jayo.buffer6(Buffer.create6().write(content)) }),
+            )
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("buffers")
+    fun writeAndReadPrimitives(name: String, factory: () -> Buffer) {
+        val buffer = factory()
+        buffer.writeByte(0xab.toByte())
+            .writeShort(0xabcd.toShort())
+            .writeInt(-0x543210ff)
+            .writeLong(-0x543210fe789abcdfL)
+            .write(ByteString.encode("bytes"))
+            .write(byteArrayOf(1, 2, 3))
+            .emit()
+        assertThat(buffer.bytesAvailable()).isEqualTo(1L + 2 + 4 + 8 + 5 + 3)
+
+        assertThat(buffer.readByte()).isEqualTo(0xab.toByte())
+        assertThat(buffer.readShort()).isEqualTo(0xabcd.toShort())
+        assertThat(buffer.readInt()).isEqualTo(-0x543210ff)
+        assertThat(buffer.readLong()).isEqualTo(-0x543210fe789abcdfL)
+        assertThat(buffer.readString(5)).isEqualTo("bytes")
+        assertThat(buffer.readByte()).isEqualTo(1.toByte())
+        assertThat(buffer.readShort()).isEqualTo(0x0203.toShort())
+        assertThat(buffer.exhausted()).isTrue()
+        assertThatThrownBy { buffer.readByte() }.isInstanceOf(JayoEOFException::class.java)
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("buffers")
+    fun writePrimitivesAtTheEndOfASegment(name: String, factory: () -> Buffer) {
+        val buffer = factory()
+        buffer.write("a".repeat(AbstractReaderTest.SEGMENT_SIZE - 3))
+            .writeLong(0x0102030405060708L)
+            .writeInt(0x090a0b0c)
+            .writeShort(0x0d0e.toShort())
+            .writeByte(0x0f)
+        assertThat(buffer.bytesAvailable()).isEqualTo(AbstractReaderTest.SEGMENT_SIZE - 3L + 8 + 4 + 2 + 1)
+
+        buffer.skip(AbstractReaderTest.SEGMENT_SIZE - 3L)
+        assertThat(buffer.readLong()).isEqualTo(0x0102030405060708L)
+        assertThat(buffer.readInt()).isEqualTo(0x090a0b0c)
+        assertThat(buffer.readShort()).isEqualTo(0x0d0e.toShort())
+        assertThat(buffer.readByte()).isEqualTo(0x0f.toByte())
+        assertThat(buffer.exhausted()).isTrue()
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("buffers")
+    fun writeAndReadNumbers(name: String, factory: () -> Buffer) {
+        val buffer = factory()
+        buffer.writeDecimalLong(Long.MIN_VALUE)
+            .writeByte(' '.code.toByte())
+            .writeDecimalLong(8675309L)
+            .writeByte(' '.code.toByte())
+            .writeHexadecimalUnsignedLong(0xcafebabeL)
+            .writeByte(' '.code.toByte())
+            .write("x 99999999999999999999")
+        assertThat(buffer.peek().readString()).isEqualTo("-9223372036854775808 8675309 cafebabe x 99999999999999999999")
+
+        assertThat(buffer.readDecimalLong()).isEqualTo(Long.MIN_VALUE)
+        buffer.skip(1L)
+        assertThat(buffer.readDecimalLong()).isEqualTo(8675309L)
+        buffer.skip(1L)
+        assertThat(buffer.readHexadecimalUnsignedLong()).isEqualTo(0xcafebabeL)
+        buffer.skip(1L)
+        assertThatThrownBy { buffer.readDecimalLong() }
+            .isInstanceOf(NumberFormatException::class.java)
+            .hasMessage("Expected a digit or '-' but was 0x78")
+        buffer.skip(2L)
+        assertThatThrownBy { buffer.readDecimalLong() }
+            .isInstanceOf(NumberFormatException::class.java)
+            .hasMessageStartingWith("Number too large: ")
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("readers")
+    fun readLinesAndSearch(name: String, factory: (String) -> Reader) {
+        val reader = factory("Don't move!\r\nHe can't see us\nif we don't move.")
+
+        assertThat(reader.indexOf('m'.code.toByte())).isEqualTo(6L)
+        assertThat(reader.indexOf('m'.code.toByte(), 7L, 41L)).isEqualTo(-1L)
+        assertThat(reader.indexOf("move".toByteArray(), 7L)).isEqualTo(41L)
+        assertThat(reader.indexOf(ByteString.encode("see"))).isEqualTo(22L)
+        assertThat(reader.indexOfElement("xyz!".toByteArray())).isEqualTo(10L)
+        assertThat(reader.rangeEquals(13L, "He".toByteArray())).isTrue()
+        assertThat(reader.rangeEquals(13L, "Ha".toByteArray())).isFalse()
+        assertThat(reader.rangeEquals(100L, "He".toByteArray())).isFalse()
+
+        assertThatThrownBy { reader.readLineStrict(10L) }.isInstanceOf(JayoEOFException::class.java)
+        assertThat(reader.readLineStrict(11L)).isEqualTo("Don't move!")
+        assertThat(reader.readLine()).isEqualTo("He can't see us")
+        assertThat(reader.readLine()).isEqualTo("if we don't move.")
+        assertThat(reader.readLine()).isNull()
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("readers")
+    fun searchAcrossSegments(name: String, factory: (String) -> Reader) {
+        val padding = "a".repeat(2 * AbstractReaderTest.SEGMENT_SIZE)
+        val secondNeedle = 8190L + 6 + padding.length
+        val reader = factory("a".repeat(8190) + "needle" + padding + "needle\n-" + "0".repeat(10_000) + "42 tail")
+
+        assertThat(reader.indexOf("needle".toByteArray())).isEqualTo(8190L)
+        assertThat(reader.indexOf("needle".toByteArray(), 8191L)).isEqualTo(secondNeedle)
+        assertThat(reader.indexOf("aneedlea".toByteArray())).isEqualTo(8189L)
+        assertThat(reader.indexOf("aneedlez".toByteArray())).isEqualTo(-1L)
+        assertThat(reader.indexOf('n'.code.toByte(), 8191L)).isEqualTo(secondNeedle)
+        assertThat(reader.indexOf('n'.code.toByte(), 8191L, secondNeedle)).isEqualTo(-1L)
+        assertThat(reader.indexOfElement("zd".toByteArray())).isEqualTo(8193L)
+        assertThat(reader.rangeEquals(8190L, ("needle" + padding + "needle").toByteArray())).isTrue()
+        assertThat(reader.rangeEquals(8190L, ("needle" + padding + "needlz").toByteArray())).isFalse()
+
+        assertThat(reader.readLine()).isEqualTo("a".repeat(8190) + "needle" + padding + "needle")
+        assertThat(reader.readDecimalLong()).isEqualTo(-42L)
+        assertThat(reader.readString()).isEqualTo(" tail")
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("readers")
+    fun readTo(name: String, factory: (String) -> Reader) {
+        val content = "a".repeat(20_000) + "bcd"
+        val reader = factory(content)
+
+        val destination = ByteArray(20_004)
+        reader.readTo(destination, 1, 20_001)
+        assertThat(String(destination, 1, 20_001)).isEqualTo(content.substring(0, 20_001))
+        assertThat(destination[0]).isEqualTo(0.toByte())
+        assertThatThrownBy { reader.readTo(destination, 20_000, 5) }
+            .isInstanceOf(IndexOutOfBoundsException::class.java)
+        assertThatThrownBy { reader.readTo(destination, 0, 3) }.isInstanceOf(JayoEOFException::class.java)
+        assertThat(reader.readString()).isEqualTo("cd")
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("buffers")
+    fun bulkOperations(name: String, factory: () -> Buffer) {
+        val bytes = ByteArray(20_000) { it.toByte() }
+        val buffer = factory()
+            .readFrom(
+                ByteBuffer.wrap(bytes, 0, 10_000),
+                ByteBuffer.allocateDirect(10_000).put(bytes, 10_000, 10_000).flip()
+            )
+        assertThat(buffer.bytesAvailable()).isEqualTo(20_000L)
+
+        assertThat(buffer.snapshot(3)).isEqualTo(ByteString.of(0, 1, 2))
+        assertThat(buffer.snapshot().toByteArray()).isEqualTo(bytes)
+
+        val expectedCrc = CRC32().apply { update(bytes, 100, 15_000) }.value
+        assertThat(buffer.checksum(CRC32(), 100L, 15_000L)).isEqualTo(expectedCrc)
+
+        val viewed = ByteArray(15_000)
+        val view = ByteBuffer.wrap(viewed)
+        buffer.asByteBuffers(100L, 15_000L).use { views -> views.byteBuffers().forEach { view.put(it) } }
+        assertThat(viewed).isEqualTo(bytes.copyOfRange(100, 15_100))
+
+        // none of these consumed the buffer
+        assertThat(buffer.bytesAvailable()).isEqualTo(20_000L)
+        assertThat(buffer.readString(20_000L, Charsets.ISO_8859_1).toByteArray(Charsets.ISO_8859_1))
+            .isEqualTo(bytes)
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("buffers")
+    fun unsafeCursorsAreOnlySupportedByImpl5(name: String, factory: () -> Buffer) {
+        val buffer = factory().write("abc")
+        if (name == "impl5") {
+            buffer.readUnsafe().use { cursor -> assertThat(cursor.next()).isEqualTo(3) }
+        } else {
+            assertThatThrownBy { buffer.readUnsafe() }.isInstanceOf(UnsupportedOperationException::class.java)
+            assertThatThrownBy { buffer.readAndWriteUnsafe() }
+                .isInstanceOf(UnsupportedOperationException::class.java)
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core
+
+import jayo.playground.core.AbstractReaderTest.Companion.SEGMENT_SIZE
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.nio.ByteBuffer
+import java.nio.channels.ScatteringByteChannel
+import java.nio.charset.StandardCharsets.ISO_8859_1
+import kotlin.random.Random
+
+class Reader3Test {
+    /**
+     * A scattering channel that serves [data] and records the number of buffers passed to each read.
+     */
+    private class RecordingScatteringChannel(private val data: ByteArray) : ScatteringByteChannel {
+        private var pos = 0
+        val singleReads = mutableListOf<Int>()
+        val scatteringReads = mutableListOf<Int>()
+
+        override fun read(dst: ByteBuffer): Int {
+            singleReads.add(dst.remaining())
+            return readInto(dst)
+        }
+
+        override fun read(dsts: Array<out ByteBuffer>, offset: Int, length: Int): Long {
+            scatteringReads.add(length)
+            if (pos == data.size) {
+                return -1L
+            }
+            var read = 0L
+            for (i in offset until offset + length) {
+                read += readInto(dsts[i]).coerceAtLeast(0)
+            }
+            return read
+        }
+
+        override fun read(dsts: Array<out ByteBuffer>) = read(dsts, 0, dsts.size)
+
+        private fun readInto(dst: ByteBuffer): Int {
+            if (pos == data.size) {
+                return -1
+            }
+            val toRead = minOf(dst.remaining(), data.size - pos)
+            dst.put(data, pos, toRead)
+            pos += toRead
+            return toRead
+        }
+
+        override fun isOpen() = true
+
+        override fun close() {}
+    }
+
+    @Test
+    fun largeRequireIsASingleScatteringRead() {
+        val data = Random.nextBytes(SEGMENT_SIZE * 5 + 7)
+        val channel = RecordingScatteringChannel(data)
+        val reader = Jayo.buffer3(Jayo.reader3(channel))
+
+        reader.require(data.size.toLong())
+        assertThat(channel.scatteringReads).containsExactly(6)
+        assertThat(channel.singleReads).isEmpty()
+        assertThat(reader.bytesAvailable()).isEqualTo(data.size.toLong())
+        assertThat(reader.readString(data.size.toLong(), ISO_8859_1)).isEqualTo(String(data, ISO_8859_1))
+    }
+
+    @Test
+    fun largeRequestFillsTheWritableTailFirst() {
+        val data = Random.nextBytes(SEGMENT_SIZE * 3)
+        val channel = RecordingScatteringChannel(data)
+        val reader = Jayo.buffer3(Jayo.reader3(channel))
+
+        // a small request is a single read of one segment
+        assertThat(reader.request(10L)).isTrue()
+        assertThat(channel.singleReads).containsExactly(SEGMENT_SIZE)
+        assertThat(reader.readString(10L, ISO_8859_1)).isEqualTo(String(data, 0, 10, ISO_8859_1))
+
+        assertThat(reader.request((SEGMENT_SIZE * 2).toLong())).isTrue()
+        assertThat(channel.scatteringReads).containsExactly(2)
+        assertThat(reader.readString(data.size - 10L, ISO_8859_1))
+            .isEqualTo(String(data, 10, data.size - 10, ISO_8859_1))
+        assertThat(reader.request(1L)).isFalse()
+    }
+
+    @Test
+    fun largeSkipAndReadString() {
+        val data = "a".repeat(SEGMENT_SIZE * 2) + "b".repeat(SEGMENT_SIZE * 2)
+        val channel = RecordingScatteringChannel(data.toByteArray())
+        val reader = Jayo.buffer3(Jayo.reader3(channel))
+
+        reader.skip((SEGMENT_SIZE * 2).toLong())
+        assertThat(reader.readString((SEGMENT_SIZE * 2).toLong())).isEqualTo("b".repeat(SEGMENT_SIZE * 2))
+        assertThat(channel.scatteringReads).containsExactly(2, 2)
+        assertThat(reader.exhausted()).isTrue()
+    }
+}
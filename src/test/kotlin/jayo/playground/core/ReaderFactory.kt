@@ -116,5 +116,26 @@ interface ReaderFactory {
                 )
             }
         }
+
+        val NATIVE_BUFFER: ReaderFactory = object : ReaderFactory {
+            override fun pipe(): Pipe {
+                val buffer = Buffer.create6()
+                return Pipe(
+                    buffer,
+                    buffer
+                )
+            }
+        }
+
+        val NATIVE_SOURCE: ReaderFactory = object :
+            ReaderFactory {
+            override fun pipe(): Pipe {
+                val buffer = Buffer.create6()
+                return Pipe(
+                    buffer,
+                    Jayo.buffer6(buffer as RawReader)
+                )
+            }
+        }
     }
 }
@@ -46,6 +46,10 @@ class PeekReaderTest : AbstractReaderTest(ReaderFactory.PEEK_SOURCE)
 
 class PeekAsyncReaderTest : AbstractReaderTest(ReaderFactory.PEEK_ASYNC_SOURCE)
 
+class NativeBufferReaderTest : AbstractReaderTest(ReaderFactory.NATIVE_BUFFER)
+
+class NativeReaderTest : AbstractReaderTest(ReaderFactory.NATIVE_SOURCE)
+
 abstract class AbstractReaderTest internal constructor(private val factory: ReaderFactory) {
     companion object {
         const val SEGMENT_SIZE = 16_709
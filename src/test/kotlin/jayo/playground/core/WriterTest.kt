@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core
+
+import jayo.playground.core.AbstractReaderTest.Companion.SEGMENT_SIZE
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.RepeatedTest
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+import java.nio.channels.FileChannel
+import java.nio.channels.GatheringByteChannel
+import java.nio.channels.WritableByteChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import kotlin.random.Random
+
+class WriterTest {
+    /**
+     * A raw writer that records the byte count of each write into a backing buffer.
+     */
+    private class RecordingRawWriter : RawWriter {
+        val sink: Buffer = Buffer.create5()
+        val writes = mutableListOf<Long>()
+        var flushCount = 0
+        var closed = false
+
+        override fun write(source: Buffer, byteCount: Long) {
+            writes.add(byteCount)
+            sink.write(source, byteCount)
+        }
+
+        override fun flush() {
+            flushCount++
+        }
+
+        override fun close() {
+            closed = true
+        }
+    }
+
+    @Test
+    fun writeOnlyEmitsCompleteSegments() {
+        val raw = RecordingRawWriter()
+        val writer = Jayo.buffer5(raw)
+
+        writer.write("a".repeat(SEGMENT_SIZE - 1))
+        assertThat(raw.writes).isEmpty()
+
+        writer.write("a".repeat(SEGMENT_SIZE + 2))
+        assertThat(raw.writes).containsExactly(2L * SEGMENT_SIZE)
+        assertThat(raw.sink.bytesAvailable()).isEqualTo(2L * SEGMENT_SIZE)
+    }
+
+    @Test
+    fun emitWritesAllBufferedBytesWithoutFlushing() {
+        val raw = RecordingRawWriter()
+        val writer = Jayo.buffer5(raw)
+
+        writer.write("abc")
+        writer.emit()
+        assertThat(raw.sink.readString()).isEqualTo("abc")
+        assertThat(raw.flushCount).isEqualTo(0)
+    }
+
+    @Test
+    fun flushWritesAllBufferedBytes() {
+        val raw = RecordingRawWriter()
+        val writer = Jayo.buffer5(raw)
+
+        writer.write("abc")
+        writer.flush()
+        assertThat(raw.sink.readString()).isEqualTo("abc")
+        assertThat(raw.flushCount).isEqualTo(1)
+    }
+
+    @Test
+    fun closeEmitsBufferedBytes() {
+        val raw = RecordingRawWriter()
+        val writer = Jayo.buffer5(raw)
+
+        writer.write("abc")
+        writer.close()
+        assertThat(raw.sink.readString()).isEqualTo("abc")
+        assertThat(raw.closed).isTrue()
+
+        assertThatThrownBy { writer.write("def") }.isInstanceOf(JayoClosedResourceException::class.java)
+    }
+
+    @Test
+    fun transferFrom() {
+        val raw = RecordingRawWriter()
+        val writer = Jayo.buffer5(raw)
+        val source = Buffer.create5()
+        source.write("a".repeat(SEGMENT_SIZE * 2 + 10))
+
+        assertThat(writer.transferFrom(source)).isEqualTo(SEGMENT_SIZE * 2L + 10L)
+        assertThat(raw.sink.bytesAvailable()).isEqualTo(2L * SEGMENT_SIZE)
+        writer.flush()
+        assertThat(raw.sink.readString()).isEqualTo("a".repeat(SEGMENT_SIZE * 2 + 10))
+    }
+
+    @Test
+    fun writePrimitives() {
+        val raw = RecordingRawWriter()
+        Jayo.buffer5(raw).use { writer ->
+            writer.writeByte(0x01)
+            writer.writeShort(0x0203)
+            writer.writeInt(0x04050607)
+            writer.writeLong(0x08090a0b0c0d0e0fL)
+            writer.writeDecimalLong(-123L)
+            writer.writeByte(' '.code.toByte())
+            writer.writeDecimalLong(Long.MIN_VALUE)
+            writer.writeByte(' '.code.toByte())
+            writer.writeHexadecimalUnsignedLong(0xcafebabeL)
+            writer.writeByte(' '.code.toByte())
+            writer.writeHexadecimalUnsignedLong(-1L)
+        }
+
+        val binary = raw.sink.readString(15, Charsets.ISO_8859_1).map { it.code.toByte() }
+        assertThat(binary).containsExactlyElementsOf((1..15).map { it.toByte() })
+        assertThat(raw.sink.readString()).isEqualTo("-123 -9223372036854775808 cafebabe ffffffffffffffff")
+    }
+
+    @Test
+    fun outputStreamWriter() {
+        val out = ByteArrayOutputStream()
+        val expected = "a".repeat(SEGMENT_SIZE * 3) + "b"
+
+        Jayo.buffer5(Jayo.writer5(out)).use { writer ->
+            writer.write(expected)
+        }
+        assertThat(out.toString(Charsets.UTF_8)).isEqualTo(expected)
+    }
+
+    @Test
+    fun gatheringChannelWriter(@TempDir tempDir: Path) {
+        val file = tempDir.resolve("gathering")
+        val expected = "a".repeat(SEGMENT_SIZE * 3) + "b"
+
+        Jayo.buffer5(Jayo.writer5(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)))
+            .use { writer ->
+                writer.write(expected)
+            }
+        assertThat(Files.readString(file)).isEqualTo(expected)
+    }
+
+    @Test
+    fun nonGatheringChannelWriter() {
+        val out = ByteArrayOutputStream()
+        val expected = "a".repeat(SEGMENT_SIZE * 3) + "b"
+
+        Jayo.buffer5(Jayo.writer5(Channels.newChannel(out))).use { writer ->
+            writer.write(expected)
+        }
+        assertThat(out.toString(Charsets.UTF_8)).isEqualTo(expected)
+    }
+
+    @Test
+    fun channelWriterFailsOnZeroByteWrite() {
+        val nonBlocking = object : WritableByteChannel {
+            override fun write(src: ByteBuffer) = 0
+            override fun isOpen() = true
+            override fun close() {}
+        }
+        val writer = Jayo.writer5(nonBlocking)
+        val source = Buffer.create5().write("abc")
+
+        assertThatThrownBy { writer.write(source, 3L) }
+            .isInstanceOf(JayoException::class.java)
+            .hasMessageContaining("blocking mode")
+        assertThat(source.bytesAvailable()).isEqualTo(3L)
+    }
+
+    @Test
+    fun gatheringChannelWriter6(@TempDir tempDir: Path) {
+        val file = tempDir.resolve("gathering")
+        val expected = "a".repeat(SEGMENT_SIZE * 3) + "b"
+
+        Jayo.writer6(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)).use { writer ->
+            val source = Buffer.create6().write(expected)
+            writer.write(source, source.bytesAvailable())
+            assertThat(source.exhausted()).isTrue()
+        }
+        assertThat(Files.readString(file)).isEqualTo(expected)
+    }
+
+    @Test
+    fun nonGatheringChannelWriter6() {
+        val out = ByteArrayOutputStream()
+        val expected = "a".repeat(SEGMENT_SIZE * 3) + "b"
+
+        Jayo.writer6(Channels.newChannel(out)).use { writer ->
+            val source = Buffer.create6().write(expected)
+            writer.write(source, source.bytesAvailable() - 1L)
+            assertThat(source.readString()).isEqualTo("b")
+        }
+        assertThat(out.toString(Charsets.UTF_8)).isEqualTo(expected.dropLast(1))
+    }
+
+    @Test
+    fun channelWriter6FailsOnZeroByteWrite() {
+        val nonBlocking = object : WritableByteChannel {
+            override fun write(src: ByteBuffer) = 0
+            override fun isOpen() = true
+            override fun close() {}
+        }
+        val writer = Jayo.writer6(nonBlocking)
+        val source = Buffer.create6().write("abc")
+
+        assertThatThrownBy { writer.write(source, 3L) }
+            .isInstanceOf(JayoException::class.java)
+            .hasMessageContaining("blocking mode")
+        assertThat(source.bytesAvailable()).isEqualTo(3L)
+    }
+
+    @Test
+    fun gatheringChannelWriter6FailsOnZeroByteWrite(@TempDir tempDir: Path) {
+        val nonBlocking = object : GatheringByteChannel {
+            override fun write(srcs: Array<out ByteBuffer>, offset: Int, length: Int) = 0L
+            override fun write(srcs: Array<out ByteBuffer>) = 0L
+            override fun write(src: ByteBuffer) = 0
+            override fun isOpen() = true
+            override fun close() {}
+        }
+        val writer = Jayo.writer6(nonBlocking)
+        val source = Buffer.create6().write("abc")
+
+        assertThatThrownBy { writer.write(source, 3L) }
+            .isInstanceOf(JayoException::class.java)
+            .hasMessageContaining("blocking mode")
+        assertThat(source.bytesAvailable()).isEqualTo(3L)
+    }
+
+    @Test
+    fun fileChannelRoundTrip6(@TempDir tempDir: Path) {
+        val file = tempDir.resolve("round-trip")
+        val expected = "a".repeat(SEGMENT_SIZE * 3) + "b"
+
+        Jayo.writer6(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)).use { writer ->
+            val source = Buffer.create6().write(expected)
+            writer.write(source, source.bytesAvailable())
+        }
+        Jayo.buffer6(Jayo.reader6(FileChannel.open(file))).use { reader ->
+            assertThat(reader.readString(5)).isEqualTo("aaaaa")
+            assertThat(reader.readString()).isEqualTo(expected.substring(5))
+            assertThat(reader.exhausted()).isTrue()
+        }
+    }
+
+    @Test
+    fun transferFromFileChannel(@TempDir tempDir: Path) {
+        val source = tempDir.resolve("source")
+        val destination = tempDir.resolve("destination")
+        val expected = "a".repeat(SEGMENT_SIZE * 3) + "b"
+        Files.writeString(source, expected)
+
+        Jayo.buffer5(Jayo.reader5(FileChannel.open(source))).use { reader ->
+            Jayo.buffer5(Jayo.writer5(FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.WRITE)))
+                .use { writer ->
+                    writer.write("head:")
+                    assertThat(reader.readString(5)).isEqualTo("aaaaa")
+                    assertThat(writer.transferFrom(reader)).isEqualTo(expected.length - 5L)
+                }
+        }
+        assertThat(Files.readString(destination)).isEqualTo("head:" + expected.substring(5))
+    }
+
+    // this test is a good race-condition test, do it several times!
+    @RepeatedTest(10)
+    fun asyncWriterSlowWriter() {
+        val raw = object : RawWriter {
+            val sink: Buffer = Buffer.create5()
+
+            override fun write(source: Buffer, byteCount: Long) {
+                Thread.sleep(0, Random.nextInt(5) /*in nanos*/)
+                sink.write(source, byteCount)
+            }
+
+            override fun flush() {}
+
+            override fun close() {}
+        }
+        val expected = StringBuilder()
+
+        Jayo.bufferAsync5(raw, ReaderFactory.TASK_RUNNER, 2L * SEGMENT_SIZE).use { writer ->
+            repeat(10_000) {
+                val line = "line $it\n"
+                writer.write(line)
+                expected.append(line)
+            }
+            writer.flush()
+            assertThat(raw.sink.readString()).isEqualTo(expected.toString())
+        }
+    }
+
+    @Test
+    fun asyncWriterPropagatesFailure() {
+        val raw = object : RawWriter {
+            override fun write(source: Buffer, byteCount: Long) {
+                throw JayoException(IOException("boom"))
+            }
+
+            override fun flush() {}
+
+            override fun close() {}
+        }
+        val writer = Jayo.bufferAsync5(raw, ReaderFactory.TASK_RUNNER)
+
+        writer.write("a".repeat(SEGMENT_SIZE))
+        assertThatThrownBy { writer.flush() }
+            .isInstanceOf(JayoException::class.java)
+            .hasMessage("boom")
+    }
+
+    @Test
+    fun asyncWriterFailureIsSticky() {
+        val raw = object : RawWriter {
+            var closed = false
+
+            override fun write(source: Buffer, byteCount: Long) {
+                throw JayoException(IOException("boom"))
+            }
+
+            override fun flush() {}
+
+            override fun close() {
+                closed = true
+            }
+        }
+        val writer = Jayo.bufferAsync5(raw, ReaderFactory.TASK_RUNNER)
+
+        writer.write("a".repeat(SEGMENT_SIZE))
+        assertThatThrownBy { writer.flush() }
+            .isInstanceOf(JayoException::class.java)
+            .hasMessage("boom")
+        assertThatThrownBy { writer.flush() }
+            .isInstanceOf(JayoException::class.java)
+            .hasMessage("boom")
+        assertThatThrownBy { writer.write("b".repeat(SEGMENT_SIZE)) }
+            .isInstanceOf(JayoException::class.java)
+            .hasMessage("boom")
+        assertThatThrownBy { writer.close() }
+            .isInstanceOf(JayoException::class.java)
+            .hasMessage("boom")
+        // the underlying writer is closed anyway
+        assertThat(raw.closed).isTrue()
+    }
+}
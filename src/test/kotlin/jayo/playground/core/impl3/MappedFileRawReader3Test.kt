@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl3
+
+import jayo.playground.core.Buffer
+import jayo.playground.core.Jayo
+import jayo.playground.core.JayoClosedResourceException
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+class MappedFileRawReader3Test {
+    @Test
+    fun mappedPathReader(@TempDir tempDir: Path) {
+        val file = tempDir.resolve("mapped")
+        val expected = "a".repeat(Segment.SIZE * 3) + "b"
+        Files.writeString(file, expected)
+
+        Jayo.buffer3(Jayo.mapped3(file)).use { reader ->
+            assertThat(reader.readString(5L)).isEqualTo("aaaaa")
+            assertThat(reader.readString()).isEqualTo(expected.substring(5))
+            assertThat(reader.exhausted()).isTrue()
+        }
+    }
+
+    @Test
+    fun mappedSegmentsAreReadOnly(@TempDir tempDir: Path) {
+        val file = tempDir.resolve("mapped")
+        Files.writeString(file, "a".repeat(Segment.SIZE + 10))
+
+        val buffer = Buffer.create3() as RealBuffer3
+        Jayo.mapped3(file).use { reader ->
+            assertThat(reader.readAtMostTo(buffer, Long.MAX_VALUE)).isEqualTo(Segment.SIZE + 10L)
+        }
+        val segments = buffer.segmentQueue.iterator().asSequence().toList()
+        assertThat(segments).hasSize(2)
+        segments.forEach { assertThat(it.isOwner()).isFalse() }
+        // appending to the buffer must not write into the mapping
+        buffer.write("b")
+        assertThat(Files.readString(file)).isEqualTo("a".repeat(Segment.SIZE + 10))
+        assertThat(buffer.readString()).isEqualTo("a".repeat(Segment.SIZE + 10) + "b")
+    }
+
+    @Test
+    fun windowRollover(@TempDir tempDir: Path) {
+        val file = tempDir.resolve("mapped")
+        val expected = (0 until 10_000).joinToString("") { (it % 10).toString() }
+        Files.writeString(file, expected)
+
+        val windowSize = 4096
+        val reader = MappedFileRawReader3(FileChannel.open(file, StandardOpenOption.READ), windowSize)
+        val buffer = Buffer.create3()
+        // a single read never crosses a window boundary
+        assertThat(reader.readAtMostTo(buffer, Long.MAX_VALUE)).isEqualTo(windowSize.toLong())
+        assertThat(reader.readAtMostTo(buffer, 100L)).isEqualTo(100L)
+        assertThat(reader.readAtMostTo(buffer, Long.MAX_VALUE)).isEqualTo(windowSize - 100L)
+        assertThat(reader.readAtMostTo(buffer, Long.MAX_VALUE)).isEqualTo(10_000L - 2 * windowSize)
+        assertThat(reader.readAtMostTo(buffer, Long.MAX_VALUE)).isEqualTo(-1L)
+        assertThat(buffer.readString()).isEqualTo(expected)
+
+        // bytes appended to the file are read by a new window
+        Files.writeString(file, "tail", StandardOpenOption.APPEND)
+        assertThat(reader.readAtMostTo(buffer, Long.MAX_VALUE)).isEqualTo(4L)
+        assertThat(buffer.readString()).isEqualTo("tail")
+
+        reader.close()
+        assertThatThrownBy { reader.readAtMostTo(buffer, 1L) }
+            .isInstanceOf(JayoClosedResourceException::class.java)
+    }
+
+    @Test
+    fun mappedFileChannelStartsAtItsPosition(@TempDir tempDir: Path) {
+        val file = tempDir.resolve("mapped")
+        Files.writeString(file, "headtail")
+
+        val channel = FileChannel.open(file, StandardOpenOption.READ)
+        channel.position(4L)
+        Jayo.buffer3(Jayo.mapped3(channel)).use { reader ->
+            assertThat(reader.readString()).isEqualTo("tail")
+        }
+        assertThat(channel.isOpen).isFalse()
+    }
+}
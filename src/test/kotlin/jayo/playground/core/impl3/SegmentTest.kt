@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl3
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+class SegmentTest {
+    private fun segmentOf(string: String, pos: Int = 0): Segment {
+        val segment = SegmentPool.take()
+        val bytes = string.toByteArray()
+        segment.byteBuffer.limit(pos + bytes.size)
+        segment.byteBuffer.put(pos, bytes)
+        segment.byteBuffer.position(pos)
+        return segment
+    }
+
+    private fun Segment.content(): String {
+        val bytes = ByteArray(byteBuffer.remaining())
+        byteBuffer.get(byteBuffer.position(), bytes)
+        return String(bytes)
+    }
+
+    @Test
+    fun splitHeadCopiesSmallPrefix() {
+        val segment = segmentOf("abcdefgh", pos = 3)
+
+        val prefix = segment.splitHead(3)
+        assertThat(prefix).isNotSameAs(segment)
+        assertThat(prefix.isOwner()).isTrue()
+        assertThat(prefix.isShared()).isFalse()
+        assertThat(prefix.content()).isEqualTo("abc")
+        assertThat(segment.content()).isEqualTo("defgh")
+    }
+
+    @Test
+    fun splitHeadSharesLargePrefix() {
+        val content = "a".repeat(2000) + "b".repeat(100)
+        val segment = segmentOf(content, pos = 10)
+
+        val prefix = segment.splitHead(2000)
+        assertThat(prefix.isOwner()).isFalse()
+        assertThat(segment.isShared()).isTrue()
+        assertThat(prefix.content()).isEqualTo("a".repeat(2000))
+        assertThat(segment.content()).isEqualTo("b".repeat(100))
+    }
+
+    @Test
+    fun writeToAppendsAfterTargetLimit() {
+        val source = segmentOf("0123456789")
+        val target = segmentOf("xy", pos = 5)
+
+        source.writeTo(target, 4)
+        assertThat(target.content()).isEqualTo("xy0123")
+        assertThat(source.content()).isEqualTo("456789")
+    }
+
+    @Test
+    fun writeToCompactsTarget() {
+        val source = segmentOf("0123456789")
+        // the target has room for 10 bytes only before its position
+        val target = segmentOf("z".repeat(Segment.SIZE - 100 - 5), pos = 100)
+
+        source.writeTo(target, 10)
+        assertThat(target.byteBuffer.position()).isEqualTo(0)
+        assertThat(target.content()).isEqualTo("z".repeat(Segment.SIZE - 105) + "0123456789")
+        assertThat(source.content()).isEmpty()
+    }
+
+    @Test
+    fun mappedSegmentIsNotRecycled(@TempDir tempDir: Path) {
+        val file = tempDir.resolve("mapped")
+        Files.writeString(file, "mapped")
+        val mapped = FileChannel.open(file, StandardOpenOption.READ).use {
+            Segment(it.map(FileChannel.MapMode.READ_ONLY, 0L, 6L))
+        }
+        assertThat(mapped.isOwner()).isFalse()
+
+        SegmentPool.recycle(mapped)
+        val taken = SegmentPool.take()
+        assertThat(taken).isNotSameAs(mapped)
+        assertThat(taken.isOwner()).isTrue()
+        assertThat(taken.byteBuffer.capacity()).isEqualTo(Segment.SIZE)
+
+        // a shared copy of a mapped segment is not recycled either
+        SegmentPool.recycle(mapped.sharedCopy())
+        assertThat(SegmentPool.take().isOwner()).isTrue()
+    }
+}
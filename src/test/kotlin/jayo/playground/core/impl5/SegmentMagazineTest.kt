@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl5
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty
+import java.util.concurrent.atomic.AtomicReference
+
+@EnabledIfSystemProperty(named = "jayo.pool.magazine.size", matches = "\\d+")
+class SegmentMagazineTest {
+    private val magazine = SegmentMagazine.current()!!
+
+    /**
+     * Empties the magazine of the current thread.
+     */
+    private fun emptyMagazine(): List<Segment> = List(magazine.count()) { SegmentPool.take() }
+
+    @Test
+    fun takeAndRecycleRoundTrip() {
+        val segment = SegmentPool.take()
+        val count = magazine.count()
+
+        SegmentPool.recycle(segment)
+        assertThat(magazine.count()).isEqualTo(count + 1)
+        assertThat(SegmentPool.take()).isSameAs(segment)
+        assertThat(magazine.count()).isEqualTo(count)
+        SegmentPool.recycle(segment)
+    }
+
+    @Test
+    fun emptyMagazineIsRefilled() {
+        val taken = emptyMagazine()
+        assertThat(magazine.count()).isEqualTo(0)
+
+        val segment = SegmentPool.take()
+        // half of the magazine was taken from the shared buckets, one of them was returned
+        assertThat(magazine.count()).isEqualTo(SegmentMagazine.CAPACITY / 2 - 1)
+
+        SegmentPool.recycle(segment)
+        taken.forEach { SegmentPool.recycle(it) }
+    }
+
+    @Test
+    fun fullMagazineSpills() {
+        val taken = emptyMagazine()
+        repeat(SegmentMagazine.CAPACITY) { SegmentPool.recycle(Segment()) }
+        assertThat(magazine.count()).isEqualTo(SegmentMagazine.CAPACITY)
+        val pooledByteCount = SegmentPool.l1PooledByteCount() + SegmentPool.l2PooledByteCount()
+        val drops = SegmentPool.DROPS.sum()
+
+        SegmentPool.recycle(Segment())
+        // half of the magazine went to the shared buckets, then the recycled segment was added
+        assertThat(magazine.count()).isEqualTo(SegmentMagazine.CAPACITY / 2 + 1)
+        val spilledByteCount = SegmentPool.l1PooledByteCount() + SegmentPool.l2PooledByteCount() - pooledByteCount +
+                (SegmentPool.DROPS.sum() - drops) * Segment.SIZE
+        assertThat(spilledByteCount).isEqualTo(SegmentMagazine.CAPACITY / 2L * Segment.SIZE)
+
+        taken.forEach { SegmentPool.recycle(it) }
+    }
+
+    @Test
+    fun virtualThreadsBypassTheMagazine() {
+        val count = magazine.count()
+        val virtualMagazine = AtomicReference<SegmentMagazine?>(magazine)
+        Thread.ofVirtual().start {
+            virtualMagazine.set(SegmentMagazine.current())
+            SegmentPool.recycle(SegmentPool.take())
+        }.join()
+
+        assertThat(virtualMagazine.get()).isNull()
+        assertThat(magazine.count()).isEqualTo(count)
+    }
+
+    @Test
+    fun magazineIsDrainedWhenItsThreadTerminates() {
+        fun pooledSegmentCount() = (SegmentPool.l1PooledByteCount() + SegmentPool.l2PooledByteCount()) / Segment.SIZE +
+                SegmentPool.DROPS.sum()
+
+        val before = pooledSegmentCount()
+        fillMagazineInAnotherThread()
+
+        // the Cleaner returns the segments of the magazine once the terminated thread is collected
+        val deadline = System.nanoTime() + 10_000_000_000L
+        while (pooledSegmentCount() < before + SegmentMagazine.CAPACITY && System.nanoTime() < deadline) {
+            System.gc()
+            Thread.sleep(10)
+        }
+        assertThat(pooledSegmentCount()).isGreaterThanOrEqualTo(before + SegmentMagazine.CAPACITY)
+    }
+
+    private fun fillMagazineInAnotherThread() {
+        val thread = Thread.ofPlatform().start {
+            repeat(SegmentMagazine.CAPACITY) { SegmentPool.recycle(Segment()) }
+            assertThat(SegmentMagazine.current()!!.count()).isEqualTo(SegmentMagazine.CAPACITY)
+        }
+        thread.join()
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl5
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty
+
+class SegmentPoolTest {
+    @BeforeEach
+    @AfterEach
+    fun resetPool() {
+        SegmentPool.resetAdaptiveSize()
+    }
+
+    @Test
+    fun l1BucketSizeGrowsUnderAllocationPressure() {
+        val now = System.nanoTime()
+        repeat(SegmentPool.GROW_ALLOCATION_THRESHOLD - 1) { SegmentPool.maybeGrow(now) }
+        assertThat(SegmentPool.l1BucketSize()).isEqualTo(SegmentPool.MAX_SIZE)
+        SegmentPool.maybeGrow(now)
+        assertThat(SegmentPool.l1BucketSize()).isEqualTo(SegmentPool.MAX_SIZE * 2)
+
+        // allocations are counted again from zero in a new allocation window
+        val nextWindow = now + SegmentPool.ALLOCATION_WINDOW_NANOS + 1
+        repeat(SegmentPool.GROW_ALLOCATION_THRESHOLD - 1) { SegmentPool.maybeGrow(nextWindow) }
+        assertThat(SegmentPool.l1BucketSize()).isEqualTo(SegmentPool.MAX_SIZE * 2)
+
+        // the L1 bucket size never exceeds its upper bound
+        repeat(SegmentPool.GROW_ALLOCATION_THRESHOLD * 8) { SegmentPool.maybeGrow(nextWindow) }
+        assertThat(SegmentPool.l1BucketSize()).isEqualTo(SegmentPool.MAX_ADAPTIVE_SIZE)
+    }
+
+    @Test
+    fun idlePoolShrinksAndTrimsL1Buckets() {
+        val now = System.nanoTime()
+        while (SegmentPool.l1BucketSize() < SegmentPool.MAX_ADAPTIVE_SIZE) {
+            SegmentPool.maybeGrow(now)
+        }
+        // fill the L1 bucket of this thread
+        val segments = List(SegmentPool.MAX_ADAPTIVE_SIZE / Segment.SIZE) { SegmentPool.takeShared() }
+        segments.forEach { SegmentPool.recycleShared(it) }
+        assertThat(SegmentPool.l1PooledByteCount()).isGreaterThan(SegmentPool.MAX_ADAPTIVE_SIZE / 2L)
+
+        // not idle for long enough
+        var time = System.nanoTime()
+        SegmentPool.maybeShrink(time)
+        assertThat(SegmentPool.l1BucketSize()).isEqualTo(SegmentPool.MAX_ADAPTIVE_SIZE)
+
+        val drops = SegmentPool.DROPS.sum()
+        var expectedBucketSize = SegmentPool.MAX_ADAPTIVE_SIZE
+        while (expectedBucketSize > SegmentPool.MAX_SIZE) {
+            time += SegmentPool.SHRINK_IDLE_NANOS + 1
+            SegmentPool.maybeShrink(time)
+            expectedBucketSize /= 2
+            assertThat(SegmentPool.l1BucketSize()).isEqualTo(expectedBucketSize)
+            assertThat(SegmentPool.l1PooledByteCount())
+                .isLessThanOrEqualTo(SegmentPool.HASH_BUCKET_COUNT.toLong() * expectedBucketSize)
+            // a shrink only happens once per idle period
+            SegmentPool.maybeShrink(time)
+            assertThat(SegmentPool.l1BucketSize()).isEqualTo(expectedBucketSize)
+        }
+        assertThat(SegmentPool.DROPS.sum()).isGreaterThan(drops)
+
+        // the L1 bucket size never goes below its initial size
+        SegmentPool.maybeShrink(time + SegmentPool.SHRINK_IDLE_NANOS + 1)
+        assertThat(SegmentPool.l1BucketSize()).isEqualTo(SegmentPool.MAX_SIZE)
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "jayo.pool.slab.segments", matches = "\\d+")
+    fun slabSegmentsShareTheirBackingArray() {
+        assertThat(SegmentPool.SLAB_SEGMENT_COUNT).isGreaterThan(1)
+
+        val segments = List(SegmentPool.SLAB_SEGMENT_COUNT * 2) { SegmentPool.take() }
+        try {
+            segments.forEach {
+                assertThat(it.data.size).isEqualTo(SegmentPool.SLAB_SEGMENT_COUNT * Segment.SIZE)
+                assertThat(it.offset % Segment.SIZE).isEqualTo(0)
+            }
+            // no two segments overlap in the same slab
+            val regions = segments.map { it.data to it.offset } // arrays have identity equality
+            assertThat(regions).doesNotHaveDuplicates()
+            assertThat(segments.any { it.offset > 0 }).isTrue()
+        } finally {
+            segments.forEach { SegmentPool.recycle(it) }
+        }
+    }
+
+    @Test
+    fun closedByteBufferViewsReturnTheirSegmentsToThePool() {
+        // empty the pool of this thread, so the next segment taken is the last one recycled
+        val held = List(SegmentPool.l1BucketSize() / Segment.SIZE + 64) { SegmentPool.take() }
+        try {
+            val buffer = RealBuffer5()
+            buffer.write("a".repeat(Segment.SIZE))
+            val viewed = buffer.head!!
+            val views = buffer.asByteBuffers()
+            assertThat(viewed.isShared()).isTrue()
+
+            // the viewed segment is pinned: it does not return to the pool with the buffer's content
+            buffer.clear()
+            val other = SegmentPool.take()
+            assertThat(other.data === viewed.data && other.offset == viewed.offset).isFalse()
+            SegmentPool.recycle(other)
+            assertThat(views.byteBuffers()[0].get(Segment.SIZE - 1)).isEqualTo('a'.code.toByte())
+
+            views.close()
+            val released = SegmentPool.take()
+            assertThat(released.data === viewed.data && released.offset == viewed.offset).isTrue()
+            SegmentPool.recycle(released)
+        } finally {
+            held.forEach { SegmentPool.recycle(it) }
+        }
+    }
+
+    @Test
+    fun closingByteBufferViewsUnsharesTheBufferSegments() {
+        val buffer = RealBuffer5()
+        buffer.write("abc")
+        val views = buffer.asByteBuffers()
+        assertThat(buffer.head!!.isShared()).isTrue()
+
+        views.close()
+        assertThat(buffer.head!!.isShared()).isFalse()
+        // closing again does not release the segment that the buffer still owns
+        views.close()
+        assertThat(buffer.head!!.isShared()).isFalse()
+        buffer.write("def")
+        assertThat(buffer.head!!.next).isSameAs(buffer.head)
+        assertThat(buffer.readString()).isEqualTo("abcdef")
+    }
+}
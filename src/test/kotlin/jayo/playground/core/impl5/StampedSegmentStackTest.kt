@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2024-present, pull-vert and Jayo contributors.
+ * Use of this source code is governed by the Apache 2.0 license.
+ */
+
+package jayo.playground.core.impl5
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.util.*
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.random.Random
+
+class StampedSegmentStackTest {
+    @Test
+    fun pushAndPopAreLastInFirstOut() {
+        val stack = StampedSegmentStack(4)
+        assertThat(stack.pop()).isNull()
+
+        val segments = List(3) { Segment() }
+        segments.forEach { assertThat(stack.push(it, Int.MAX_VALUE)).isTrue() }
+        assertThat(stack.pop()).isSameAs(segments[2])
+        assertThat(stack.push(segments[2], Int.MAX_VALUE)).isTrue()
+        assertThat(stack.pop()).isSameAs(segments[2])
+        assertThat(stack.pop()).isSameAs(segments[1])
+        assertThat(stack.pop()).isSameAs(segments[0])
+        assertThat(stack.pop()).isNull()
+    }
+
+    @Test
+    fun countTracksPushesAndPops() {
+        val stack = StampedSegmentStack(8)
+        assertThat(stack.count()).isEqualTo(0)
+        repeat(5) { stack.push(Segment(), Int.MAX_VALUE) }
+        assertThat(stack.count()).isEqualTo(5)
+        stack.pop()
+        stack.pop()
+        assertThat(stack.count()).isEqualTo(3)
+        repeat(3) { stack.pop() }
+        assertThat(stack.count()).isEqualTo(0)
+        stack.pop()
+        assertThat(stack.count()).isEqualTo(0)
+    }
+
+    @Test
+    fun pushIsLimitedByCapacityAndMaxCount() {
+        val stack = StampedSegmentStack(3)
+        repeat(3) { assertThat(stack.push(Segment(), Int.MAX_VALUE)).isTrue() }
+        // no free slot left
+        assertThat(stack.push(Segment(), Int.MAX_VALUE)).isFalse()
+        assertThat(stack.count()).isEqualTo(3)
+
+        // maxCount is lower than the capacity
+        stack.pop()
+        stack.pop()
+        assertThat(stack.push(Segment(), 1)).isFalse()
+        assertThat(stack.push(Segment(), 2)).isTrue()
+        assertThat(stack.push(Segment(), 2)).isFalse()
+        assertThat(stack.count()).isEqualTo(2)
+    }
+
+    @Test
+    fun maxCapacityStack() {
+        val stack = StampedSegmentStack(StampedSegmentStack.MAX_CAPACITY)
+        val segment = Segment()
+        repeat(StampedSegmentStack.MAX_CAPACITY) { assertThat(stack.push(segment, Int.MAX_VALUE)).isTrue() }
+        assertThat(stack.count()).isEqualTo(StampedSegmentStack.MAX_CAPACITY)
+        assertThat(stack.push(segment, Int.MAX_VALUE)).isFalse()
+        repeat(StampedSegmentStack.MAX_CAPACITY) { assertThat(stack.pop()).isSameAs(segment) }
+        assertThat(stack.pop()).isNull()
+    }
+
+    /**
+     * Threads concurrently pop two segments A and B, then push them back in a random order. This is the interleaving
+     * where a CAS without a stamp could succeed on a stale head (ABA). No segment must ever be owned by two threads,
+     * and all segments must be back in the stack at the end.
+     */
+    @Test
+    fun concurrentPopPopPushNeverLosesNorDuplicatesSegments() {
+        val segmentCount = 16
+        val threadCount = 8
+        val iterations = 50_000
+        val stack = StampedSegmentStack(segmentCount)
+        val segments = List(segmentCount) { Segment() }
+        val owned = IdentityHashMap<Segment, AtomicBoolean>()
+        segments.forEach {
+            owned[it] = AtomicBoolean(false)
+            assertThat(stack.push(it, Int.MAX_VALUE)).isTrue()
+        }
+
+        val duplicates = AtomicInteger()
+        val failedPushes = AtomicInteger()
+        val start = CountDownLatch(1)
+        val executor = Executors.newFixedThreadPool(threadCount)
+        try {
+            repeat(threadCount) {
+                executor.execute {
+                    val random = Random(it)
+                    start.await()
+                    repeat(iterations) {
+                        val a = stack.pop()
+                        val b = stack.pop()
+                        listOfNotNull(a, b).forEach { segment ->
+                            if (!owned[segment]!!.compareAndSet(false, true)) {
+                                duplicates.incrementAndGet()
+                            }
+                        }
+                        val toPush = if (random.nextBoolean()) listOfNotNull(a, b) else listOfNotNull(b, a)
+                        toPush.forEach { segment ->
+                            owned[segment]!!.set(false)
+                            if (!stack.push(segment, Int.MAX_VALUE)) {
+                                failedPushes.incrementAndGet()
+                            }
+                        }
+                    }
+                }
+            }
+            start.countDown()
+        } finally {
+            executor.shutdown()
+            assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue()
+        }
+
+        assertThat(duplicates.get()).isEqualTo(0)
+        assertThat(failedPushes.get()).isEqualTo(0)
+        assertThat(stack.count()).isEqualTo(segmentCount)
+        val popped = Collections.newSetFromMap(IdentityHashMap<Segment, Boolean>())
+        while (true) {
+            val segment = stack.pop() ?: break
+            assertThat(popped.add(segment)).isTrue()
+        }
+        assertThat(popped).containsExactlyInAnyOrderElementsOf(segments)
+    }
+}